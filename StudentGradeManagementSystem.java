@@ -1,6 +1,7 @@
 package com.example.demo;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
@@ -12,77 +13,2427 @@ import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import javafx.util.Callback;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.DoubleSummaryStatistics;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
 import java.util.prefs.Preferences;
 import java.util.stream.Collectors;
+import java.util.regex.Pattern;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
 
 public class StudentGradeManagementSystem extends Application {
 
+    private static final Logger LOG = Logger.getLogger(StudentGradeManagementSystem.class.getName());
+
     // Data models
     private static class User {
         private String username;
         private String password;
         private String fullName;
 
-        public User(String username, String password, String fullName) {
-            this.username = username;
-            this.password = password;
-            this.fullName = fullName;
+        public User(String username, String password, String fullName) {
+            this.username = username;
+            this.password = password;
+            this.fullName = fullName;
+        }
+
+        public String getUsername() { return username; }
+        public String getPassword() { return password; }
+        public String getFullName() { return fullName; }
+    }
+
+    private static class Grade {
+        private long id;
+        private String studentId;
+        private String subject;
+        private double grade;
+        private String date;
+        private String teacherId;
+
+        public Grade(long id, String studentId, String subject, double grade, String date, String teacherId) {
+            this.id = id;
+            this.studentId = studentId;
+            this.subject = subject;
+            this.grade = grade;
+            this.date = date;
+            this.teacherId = teacherId;
+        }
+
+        public long getId() { return id; }
+        public String getStudentId() { return studentId; }
+        public String getSubject() { return subject; }
+        public double getGrade() { return grade; }
+        public String getDate() { return date; }
+        public String getTeacherId() { return teacherId; }
+        public void setGrade(double grade) { this.grade = grade; }
+        public void setDate(String date) { this.date = date; }
+    }
+
+    private static class Notification {
+        private String userId;
+        private String message;
+        private String date;
+
+        public Notification(String userId, String message, String date) {
+            this.userId = userId;
+            this.message = message;
+            this.date = date;
+        }
+
+        public String getUserId() { return userId; }
+        public String getMessage() { return message; }
+        public String getDate() { return date; }
+    }
+
+    // Per-student view: the grade rows and summary values shown on the student dashboard
+    private static class StudentView {
+        private final List<Grade> grades;
+        private final int totalGrades;
+        private final long failedGrades;
+
+        public StudentView(List<Grade> grades, long failedGrades) {
+            this.grades = Collections.unmodifiableList(grades);
+            this.totalGrades = grades.size();
+            this.failedGrades = failedGrades;
+        }
+
+        public List<Grade> getGrades() { return grades; }
+        public int getTotalGrades() { return totalGrades; }
+        public long getFailedGrades() { return failedGrades; }
+    }
+
+    // Bounded LRU cache of student views, invalidated whenever that student's grades change
+    private static class StudentViewCache {
+        private final Map<String, StudentView> views;
+        private long hits;
+        private long misses;
+        private long evictions;
+
+        public StudentViewCache(int maxEntries) {
+            this.views = new LinkedHashMap<String, StudentView>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, StudentView> eldest) {
+                    if (size() > maxEntries) {
+                        evictions++;
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        public synchronized StudentView get(String studentId, Function<String, StudentView> loader) {
+            StudentView view = views.get(studentId);
+            if (view != null) {
+                hits++;
+                return view;
+            }
+            misses++;
+            view = loader.apply(studentId);
+            views.put(studentId, view);
+            return view;
+        }
+
+        public synchronized void invalidate(String studentId) { views.remove(studentId); }
+        public synchronized void invalidateAll() { views.clear(); }
+        public synchronized int size() { return views.size(); }
+        public synchronized long getHits() { return hits; }
+        public synchronized long getMisses() { return misses; }
+        public synchronized long getEvictions() { return evictions; }
+    }
+
+    // A single problem found while validating a batch; row is the index within the batch
+    private static class ValidationError {
+        private int row;
+        private String field;
+        private String message;
+
+        public ValidationError(int row, String field, String message) {
+            this.row = row;
+            this.field = field;
+            this.message = message;
+        }
+
+        public int getRow() { return row; }
+        public String getField() { return field; }
+        public String getMessage() { return message; }
+
+        @Override
+        public String toString() { return "Row " + row + " (" + field + "): " + message; }
+    }
+
+    private static class ValidationReport {
+        private final List<ValidationError> errors;
+
+        public ValidationReport(List<ValidationError> errors) {
+            errors.sort(Comparator.comparingInt(ValidationError::getRow));
+            this.errors = Collections.unmodifiableList(errors);
+        }
+
+        public boolean isValid() { return errors.isEmpty(); }
+        public List<ValidationError> getErrors() { return errors; }
+    }
+
+    // Shared validation stage for grades and users, used by the forms and by bulk ingest.
+    // Batches are split across the common fork/join pool; small batches run on the caller's thread.
+    private static class DataValidator {
+        private static final int SPLIT_THRESHOLD = 1024;
+        private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+        private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+        private final Set<String> studentIds;
+        private final Set<String> teacherIds;
+        private final GradeKeyIndex existingGradeKeys;
+
+        // The sets are the store's live username and grade-key indexes, so checks never copy them
+        public DataValidator(Set<String> studentIds, Set<String> teacherIds, GradeKeyIndex existingGradeKeys) {
+            this.studentIds = studentIds;
+            this.teacherIds = teacherIds;
+            this.existingGradeKeys = existingGradeKeys;
+        }
+
+        // Trims and collapses whitespace runs to one space; names that are already normal, as bulk
+        // rows usually are, come back as the same instance without running the regex
+        public static String normalizeName(String name) {
+            if (name == null) {
+                return "";
+            }
+            String trimmed = name.trim();
+            for (int i = 0; i < trimmed.length(); i++) {
+                char c = trimmed.charAt(i);
+                if (Character.isWhitespace(c) && (c != ' ' || Character.isWhitespace(trimmed.charAt(i + 1)))) {
+                    return WHITESPACE.matcher(trimmed).replaceAll(" ");
+                }
+            }
+            return trimmed;
+        }
+
+        // Same key for subjects that differ only in case or spacing, on both the batch and the store side
+        public static String gradeKey(String studentId, String subject, String date) {
+            return studentId + '\u0000' + normalizeName(subject).toLowerCase() + '\u0000' + date;
+        }
+
+        public ValidationReport validateGrades(List<Grade> batch) {
+            // First occurrence of each (student, subject, date) key within the batch
+            Map<String, Integer> firstRows = new ConcurrentHashMap<>();
+            return new ValidationReport(new GradeCheckTask(batch, 0, batch.size(), studentIds, teacherIds, firstRows, false).invoke());
+        }
+
+        public ValidationReport validateUsers(List<User> batch, Set<String> existingNames) {
+            Map<String, Integer> firstRows = new ConcurrentHashMap<>();
+            return new ValidationReport(new UserCheckTask(batch, 0, batch.size(), existingNames, firstRows, false).invoke());
+        }
+
+        // Runs in two passes over the same ranges: per-row checks while recording the first row of
+        // each duplicate key, then flagging every later row that shares a key.
+        private class GradeCheckTask extends RecursiveTask<List<ValidationError>> {
+            private static final long serialVersionUID = 1L;
+
+            private final List<Grade> batch;
+            private final int from;
+            private final int to;
+            private final Set<String> studentIds;
+            private final Set<String> teacherIds;
+            private final Map<String, Integer> firstRows;
+            private final boolean duplicatePass;
+
+            GradeCheckTask(List<Grade> batch, int from, int to, Set<String> studentIds, Set<String> teacherIds,
+                           Map<String, Integer> firstRows, boolean duplicatePass) {
+                this.batch = batch;
+                this.from = from;
+                this.to = to;
+                this.studentIds = studentIds;
+                this.teacherIds = teacherIds;
+                this.firstRows = firstRows;
+                this.duplicatePass = duplicatePass;
+            }
+
+            @Override
+            protected List<ValidationError> compute() {
+                List<ValidationError> errors;
+                if (to - from > SPLIT_THRESHOLD) {
+                    int mid = (from + to) >>> 1;
+                    GradeCheckTask left = new GradeCheckTask(batch, from, mid, studentIds, teacherIds, firstRows, duplicatePass);
+                    left.fork();
+                    errors = new GradeCheckTask(batch, mid, to, studentIds, teacherIds, firstRows, duplicatePass).compute();
+                    errors.addAll(left.join());
+                } else {
+                    errors = new ArrayList<>();
+                    for (int row = from; row < to; row++) {
+                        if (duplicatePass) {
+                            checkDuplicate(row, errors);
+                        } else {
+                            checkRow(row, errors);
+                        }
+                    }
+                }
+
+                // The top-level task starts the duplicate pass once every first row is known
+                if (!duplicatePass && from == 0 && to == batch.size()) {
+                    errors.addAll(new GradeCheckTask(batch, from, to, studentIds, teacherIds, firstRows, true).compute());
+                }
+                return errors;
+            }
+
+            private void checkRow(int row, List<ValidationError> errors) {
+                Grade grade = batch.get(row);
+                if (grade.getGrade() < 0 || grade.getGrade() > 100 || Double.isNaN(grade.getGrade())) {
+                    errors.add(new ValidationError(row, "grade", "Grade must be between 0 and 100"));
+                }
+                if (grade.getSubject() == null || normalizeName(grade.getSubject()).isEmpty()) {
+                    errors.add(new ValidationError(row, "subject", "Subject is required"));
+                    return;
+                }
+                try {
+                    LocalDate.parse(grade.getDate(), DATE_FORMAT);
+                } catch (DateTimeParseException | NullPointerException ex) {
+                    errors.add(new ValidationError(row, "date", "Invalid date: " + grade.getDate()));
+                    return;
+                }
+                if (!studentIds.contains(grade.getStudentId())) {
+                    errors.add(new ValidationError(row, "studentId", "Unknown student: " + grade.getStudentId()));
+                }
+                if (!teacherIds.contains(grade.getTeacherId())) {
+                    errors.add(new ValidationError(row, "teacherId", "Unknown teacher: " + grade.getTeacherId()));
+                }
+
+                String key = gradeKey(grade.getStudentId(), grade.getSubject(), grade.getDate());
+                if (existingGradeKeys.contains(grade.getStudentId(), grade.getSubject(), grade.getDate())) {
+                    errors.add(new ValidationError(row, "subject", "Duplicate grade for " + grade.getStudentId()
+                            + " in " + grade.getSubject() + " on " + grade.getDate()));
+                } else {
+                    firstRows.merge(key, row, Math::min);
+                }
+            }
+
+            private void checkDuplicate(int row, List<ValidationError> errors) {
+                Grade grade = batch.get(row);
+                if (grade.getSubject() == null || grade.getDate() == null) {
+                    return;
+                }
+                Integer first = firstRows.get(gradeKey(grade.getStudentId(), grade.getSubject(), grade.getDate()));
+                if (first != null && first != row) {
+                    errors.add(new ValidationError(row, "subject", "Duplicate of row " + first));
+                }
+            }
+        }
+
+        private class UserCheckTask extends RecursiveTask<List<ValidationError>> {
+            private static final long serialVersionUID = 1L;
+
+            private final List<User> batch;
+            private final int from;
+            private final int to;
+            private final Set<String> existingNames;
+            private final Map<String, Integer> firstRows;
+            private final boolean duplicatePass;
+
+            UserCheckTask(List<User> batch, int from, int to, Set<String> existingNames,
+                          Map<String, Integer> firstRows, boolean duplicatePass) {
+                this.batch = batch;
+                this.from = from;
+                this.to = to;
+                this.existingNames = existingNames;
+                this.firstRows = firstRows;
+                this.duplicatePass = duplicatePass;
+            }
+
+            @Override
+            protected List<ValidationError> compute() {
+                List<ValidationError> errors;
+                if (to - from > SPLIT_THRESHOLD) {
+                    int mid = (from + to) >>> 1;
+                    UserCheckTask left = new UserCheckTask(batch, from, mid, existingNames, firstRows, duplicatePass);
+                    left.fork();
+                    errors = new UserCheckTask(batch, mid, to, existingNames, firstRows, duplicatePass).compute();
+                    errors.addAll(left.join());
+                } else {
+                    errors = new ArrayList<>();
+                    for (int row = from; row < to; row++) {
+                        User user = batch.get(row);
+                        if (duplicatePass) {
+                            Integer first = firstRows.get(user.getUsername());
+                            if (first != null && first != row) {
+                                errors.add(new ValidationError(row, "username", "Username already exists"));
+                            }
+                        } else if (isBlank(user.getUsername()) || isBlank(user.getPassword()) || normalizeName(user.getFullName()).isEmpty()) {
+                            errors.add(new ValidationError(row, "username", "All fields are required"));
+                        } else if (existingNames.contains(user.getUsername())) {
+                            errors.add(new ValidationError(row, "username", "Username already exists"));
+                        } else {
+                            firstRows.merge(user.getUsername(), row, Math::min);
+                        }
+                    }
+                }
+
+                if (!duplicatePass && from == 0 && to == batch.size()) {
+                    errors.addAll(new UserCheckTask(batch, from, to, existingNames, firstRows, true).compute());
+                }
+                return errors;
+            }
+
+            private boolean isBlank(String value) {
+                return value == null || value.isEmpty();
+            }
+        }
+    }
+
+    // Set of (student, subject, date) grade keys with the same meaning as DataValidator.gradeKey, held
+    // as dictionary codes packed into longs in an open-addressing table, so adding a bulk row costs a
+    // few small-map lookups instead of building and hashing a key string. Students are coded by the
+    // grade columns' dictionary. Keys whose codes do not fit the packing fall back to gradeKey strings.
+    private static class GradeKeyIndex {
+        private static final int STUDENT_BITS = 30;
+        private static final int SUBJECT_BITS = 13;
+        private static final int DATE_BITS = 20;
+        // Set on every packed key, so 0 can mark empty slots
+        private static final long PRESENT = 1L << 63;
+
+        private final Dictionary students;
+        private final Dictionary subjects = new Dictionary();
+        private final Dictionary dates = new Dictionary();
+        // Subject as entered -> code of its normalized, lowercased form
+        private final Map<String, Integer> rawSubjects = new HashMap<>();
+        private final Set<String> overflow = new HashSet<>();
+        private long[] table = new long[64];
+        private int size;
+
+        public GradeKeyIndex(Dictionary students) {
+            this.students = students;
+        }
+
+        // student is the code of the grade's student id in the shared dictionary
+        public void add(int student, String subject, String date) {
+            Integer subjectCode = rawSubjects.get(subject);
+            if (subjectCode == null) {
+                subjectCode = subjects.encode(normalizedSubject(subject));
+                rawSubjects.put(subject, subjectCode);
+            }
+            long key = pack(student, subjectCode, dates.encode(date));
+            if (key == 0) {
+                overflow.add(DataValidator.gradeKey(students.decode(student), subject, date));
+            } else if (insert(key)) {
+                size++;
+                if (size * 2 > table.length) {
+                    resize(table.length * 2);
+                }
+            }
+        }
+
+        // Read-only, so validation tasks may call it from several threads while nothing is added
+        public boolean contains(String studentId, String subject, String date) {
+            Integer subjectCode = rawSubjects.get(subject);
+            long key = pack(students.lookup(studentId),
+                    subjectCode != null ? subjectCode : subjects.lookup(normalizedSubject(subject)), dates.lookup(date));
+            if (key == 0) {
+                return !overflow.isEmpty() && overflow.contains(DataValidator.gradeKey(studentId, subject, date));
+            }
+            for (int slot = slot(key); table[slot] != 0; slot = (slot + 1) & (table.length - 1)) {
+                if (table[slot] == key) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Sizes the table for the given number of keys up front, for bulk loads
+        public void reserve(int keys) {
+            int capacity = Integer.highestOneBit(Math.max(keys, 32) * 2 - 1) << 1;
+            if (capacity > table.length) {
+                resize(capacity);
+            }
+        }
+
+        public int size() { return size + overflow.size(); }
+
+        private static String normalizedSubject(String subject) {
+            return DataValidator.normalizeName(subject).toLowerCase();
+        }
+
+        // 0 when a code is unknown (-1) or too large to pack
+        private static long pack(int student, int subject, int date) {
+            if (student < 0 || subject < 0 || date < 0
+                    || student >= 1 << STUDENT_BITS || subject >= 1 << SUBJECT_BITS || date >= 1 << DATE_BITS) {
+                return 0;
+            }
+            return PRESENT | (long) student << (SUBJECT_BITS + DATE_BITS) | (long) subject << DATE_BITS | date;
+        }
+
+        private int slot(long key) {
+            return (int) ((key * 0x9E3779B97F4A7C15L) >>> (64 - Integer.numberOfTrailingZeros(table.length)));
+        }
+
+        private boolean insert(long key) {
+            int slot = slot(key);
+            while (table[slot] != 0) {
+                if (table[slot] == key) {
+                    return false;
+                }
+                slot = (slot + 1) & (table.length - 1);
+            }
+            table[slot] = key;
+            return true;
+        }
+
+        private void resize(int capacity) {
+            long[] old = table;
+            table = new long[capacity];
+            for (long key : old) {
+                if (key != 0) {
+                    insert(key);
+                }
+            }
+        }
+    }
+
+    // Deterministic generator for large load-test datasets; the same seed always yields the same data
+    private static class SyntheticDataGenerator {
+        private static final String[] SUBJECTS = {
+                "Mathematics", "Science", "English", "History", "Geography", "Physics",
+                "Chemistry", "Biology", "Computer Science", "Art", "Music", "Physical Education"
+        };
+        // Relative frequency of each subject and how much harder than average it is graded
+        private static final int[] SUBJECT_WEIGHTS = {16, 12, 16, 9, 7, 8, 8, 8, 6, 4, 3, 3};
+        private static final double[] SUBJECT_DIFFICULTY = {6, 4, 0, 1, 0, 7, 6, 3, 2, -5, -6, -9};
+        private static final String[] FIRST_NAMES = {
+                "Alice", "Bob", "Carlos", "Diana", "Ethan", "Fatima", "George", "Hana", "Ivan", "Julia",
+                "Kenji", "Laura", "Mohammed", "Nina", "Omar", "Priya", "Quinn", "Rosa", "Samuel", "Tara"
+        };
+        private static final String[] LAST_NAMES = {
+                "Johnson", "Williams", "Smith", "Doe", "Garcia", "Khan", "Schmidt", "Nguyen", "Okafor", "Patel",
+                "Rossi", "Silva", "Tanaka", "Brown", "Kowalski", "Haddad", "Ivanova", "Larsen", "Moreau", "Chen"
+        };
+        // A Monday; generated grades fall on weekdays only
+        private static final LocalDate TERM_START = LocalDate.of(2024, 9, 2);
+
+        private final long seed;
+        private final int studentCount;
+        private final int teacherCount;
+        private final long gradeCount;
+
+        public SyntheticDataGenerator(long seed, int studentCount, int teacherCount, long gradeCount) {
+            if (studentCount <= 0 || teacherCount <= 0 || gradeCount < 0) {
+                throw new IllegalArgumentException("Need at least one student and one teacher");
+            }
+            this.seed = seed;
+            this.studentCount = studentCount;
+            this.teacherCount = teacherCount;
+            this.gradeCount = gradeCount;
+        }
+
+        public void generate(Consumer<User> studentSink, Consumer<User> teacherSink, Consumer<Grade> gradeSink) {
+            SplittableRandom random = new SplittableRandom(seed);
+
+            // Usernames are built once and shared by every grade that references them
+            String[] teacherIds = new String[teacherCount];
+            for (int i = 0; i < teacherCount; i++) {
+                teacherIds[i] = "teacher" + (i + 1);
+                teacherSink.accept(new User(teacherIds[i], "pass123", randomName(random)));
+            }
+
+            // Each student has a stable ability level that all of their grades are drawn around
+            String[] studentIds = new String[studentCount];
+            double[] ability = new double[studentCount];
+            for (int i = 0; i < studentCount; i++) {
+                studentIds[i] = "student" + (i + 1);
+                studentSink.accept(new User(studentIds[i], "pass123", randomName(random)));
+                ability[i] = clamp(68 + 12 * gaussian(random), 20, 98);
+            }
+
+            int totalWeight = 0;
+            for (int weight : SUBJECT_WEIGHTS) {
+                totalWeight += weight;
+            }
+
+            // Grades are dealt round-robin across students and each student's n-th grade is dated
+            // n school days into the term, so (student, subject, date) never repeats.
+            DateTimeFormatter format = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+            List<String> dates = new ArrayList<>();
+            for (long k = 0; k < gradeCount; k++) {
+                int student = (int) (k % studentCount);
+                int sequence = (int) (k / studentCount);
+                while (dates.size() <= sequence) {
+                    dates.add(schoolDay(dates.size()).format(format));
+                }
+
+                int subject = pickSubject(random.nextInt(totalWeight));
+                double value = Math.rint(clamp(ability[student] - SUBJECT_DIFFICULTY[subject] + 8 * gaussian(random), 0, 100));
+                int teacher = (subject + student * SUBJECTS.length) % teacherCount;
+
+                gradeSink.accept(new Grade(k + 1, studentIds[student], SUBJECTS[subject], value,
+                        dates.get(sequence), teacherIds[teacher]));
+            }
+        }
+
+        // The n-th weekday of the term, counting from 0
+        private static LocalDate schoolDay(int n) {
+            return TERM_START.plusDays(n / 5 * 7 + n % 5);
+        }
+
+        private static int pickSubject(int roll) {
+            int subject = 0;
+            while (roll >= SUBJECT_WEIGHTS[subject]) {
+                roll -= SUBJECT_WEIGHTS[subject];
+                subject++;
+            }
+            return subject;
+        }
+
+        private static String randomName(SplittableRandom random) {
+            return FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        }
+
+        // Box-Muller transform, kept local so the output does not depend on the JDK's Gaussian implementation
+        private static double gaussian(SplittableRandom random) {
+            double u = 1.0 - random.nextDouble();
+            return Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * random.nextDouble());
+        }
+
+        private static double clamp(double value, double min, double max) {
+            return Math.max(min, Math.min(max, value));
+        }
+    }
+
+    // A change to the data store; userId is the student or user the change belongs to
+    private static class ChangeEvent {
+        enum Type { GRADE_ADDED, USER_ADDED, USER_REMOVED, NOTIFICATION_ADDED }
+
+        private Type type;
+        private String userId;
+        private Object payload;
+
+        public ChangeEvent(Type type, String userId, Object payload) {
+            this.type = type;
+            this.userId = userId;
+            this.payload = payload;
+        }
+
+        public Type getType() { return type; }
+        public String getUserId() { return userId; }
+        public Object getPayload() { return payload; }
+    }
+
+    // Publish/subscribe stream of data store changes. Publishers block when the queue is full, and a
+    // single dispatcher thread hands subscribers everything queued so far as one batch.
+    private static class ChangeEventBus {
+        private final BlockingQueue<ChangeEvent> queue;
+        private final List<Consumer<List<ChangeEvent>>> subscribers = new CopyOnWriteArrayList<>();
+        private final int maxBatch;
+
+        public ChangeEventBus(int capacity, int maxBatch) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.maxBatch = maxBatch;
+
+            Thread dispatcher = new Thread(this::dispatch, "change-event-dispatcher");
+            dispatcher.setDaemon(true);
+            dispatcher.start();
+        }
+
+        public void subscribe(Consumer<List<ChangeEvent>> subscriber) {
+            subscribers.add(subscriber);
+        }
+
+        public void publish(ChangeEvent event) {
+            if (subscribers.isEmpty()) {
+                return;
+            }
+            try {
+                queue.put(event);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void dispatch() {
+            List<ChangeEvent> batch = new ArrayList<>(maxBatch);
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    batch.add(queue.take());
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                queue.drainTo(batch, maxBatch - 1);
+
+                List<ChangeEvent> delivered = Collections.unmodifiableList(new ArrayList<>(batch));
+                batch.clear();
+                for (Consumer<List<ChangeEvent>> subscriber : subscribers) {
+                    try {
+                        subscriber.accept(delivered);
+                    } catch (RuntimeException ex) {
+                        // One failing subscriber must not stop delivery to the others
+                        LOG.log(Level.WARNING, "Change event subscriber failed on a batch of " + delivered.size() + " events", ex);
+                    }
+                }
+            }
+        }
+    }
+
+    // Order-statistics index of one score per student, held as a Fenwick tree of counts over
+    // 0.1-point buckets, so rank and percentile lookups cost O(log buckets) whatever the class size.
+    // Students are addressed by their code in the shared student dictionary, and each bucket's
+    // members form an intrusive linked list over those codes, so moving a student between buckets
+    // is a few array writes with no hashing.
+    private static class ScoreIndex {
+        private static final int BUCKETS = 1001;
+        private static final int NONE = -1;
+
+        private final Dictionary students;
+        private final int[] tree = new int[BUCKETS + 1];
+        private final int[] head = new int[BUCKETS];
+        private int[] next = new int[0];
+        private int[] previous = new int[0];
+        private int[] bucket = new int[0];
+        private double[] score = new double[0];
+        private int size;
+
+        public ScoreIndex(Dictionary students) {
+            this.students = students;
+            Arrays.fill(head, NONE);
+        }
+
+        public void put(int student, double value) {
+            ensureCapacity(student);
+            int target = bucketOf(value);
+            score[student] = value;
+            if (bucket[student] == target) {
+                return;
+            }
+            if (bucket[student] != NONE) {
+                unlink(student);
+            } else {
+                size++;
+            }
+            bucket[student] = target;
+            previous[student] = NONE;
+            next[student] = head[target];
+            if (head[target] != NONE) {
+                previous[head[target]] = student;
+            }
+            head[target] = student;
+            addCount(target, 1);
+        }
+
+        public void remove(int student) {
+            if (student < bucket.length && bucket[student] != NONE) {
+                unlink(student);
+                bucket[student] = NONE;
+                size--;
+            }
+        }
+
+        // null if the student has no score
+        public Double scoreOf(String studentId) {
+            int student = students.lookup(studentId);
+            return student < 0 || student >= bucket.length || bucket[student] == NONE ? null : score[student];
+        }
+
+        public int size() { return size; }
+
+        // 1-based rank where tied buckets share a rank; 0 if the student has no score
+        public int rank(String studentId) {
+            int student = students.lookup(studentId);
+            if (student < 0 || student >= bucket.length || bucket[student] == NONE) {
+                return 0;
+            }
+            return size - countAtOrBelow(bucket[student]) + 1;
+        }
+
+        // Percentage of students scoring at or below the given score
+        public double percentile(double value) {
+            return size == 0 ? 0 : countAtOrBelow(bucketOf(value)) * 100.0 / size;
+        }
+
+        // Highest scores first; members of a bucket are ordered by their exact score, then by id
+        public List<String> top(int n) {
+            List<String> result = new ArrayList<>(Math.min(n, size));
+            List<Integer> members = new ArrayList<>();
+            for (int b = BUCKETS - 1; b >= 0 && result.size() < n; b--) {
+                members.clear();
+                for (int student = head[b]; student != NONE; student = next[student]) {
+                    members.add(student);
+                }
+                members.sort(Comparator.comparingDouble((Integer student) -> -score[student])
+                        .thenComparing(student -> students.decode(student)));
+                for (int i = 0; i < members.size() && result.size() < n; i++) {
+                    result.add(students.decode(members.get(i)));
+                }
+            }
+            return result;
+        }
+
+        private void unlink(int student) {
+            int from = bucket[student];
+            if (previous[student] != NONE) {
+                next[previous[student]] = next[student];
+            } else {
+                head[from] = next[student];
+            }
+            if (next[student] != NONE) {
+                previous[next[student]] = previous[student];
+            }
+            addCount(from, -1);
+        }
+
+        // Sizes the per-student arrays for this many students up front, for bulk loads
+        public void reserve(int students) {
+            if (students > 0) {
+                ensureCapacity(students - 1);
+            }
+        }
+
+        private void ensureCapacity(int student) {
+            if (student < bucket.length) {
+                return;
+            }
+            int capacity = Math.max(student + 1, bucket.length * 2);
+            int oldLength = bucket.length;
+            next = Arrays.copyOf(next, capacity);
+            previous = Arrays.copyOf(previous, capacity);
+            score = Arrays.copyOf(score, capacity);
+            bucket = Arrays.copyOf(bucket, capacity);
+            Arrays.fill(bucket, oldLength, capacity, NONE);
+        }
+
+        private static int bucketOf(double value) {
+            return (int) Math.round(Math.max(0, Math.min(100, value)) * 10);
+        }
+
+        private void addCount(int b, int delta) {
+            for (int i = b + 1; i <= BUCKETS; i += i & -i) {
+                tree[i] += delta;
+            }
+        }
+
+        private int countAtOrBelow(int b) {
+            int count = 0;
+            for (int i = b + 1; i > 0; i -= i & -i) {
+                count += tree[i];
+            }
+            return count;
+        }
+    }
+
+    // Rankings on each student's average grade, overall and per subject, kept current as grades change.
+    // Students and subjects are coded by the dictionaries of the grade columns it is built alongside,
+    // so the running totals live in plain arrays and a stored grade needs no further lookups.
+    private static class Leaderboard {
+        private final Dictionary students;
+        private final Dictionary subjects;
+        private final ScoreIndex overall;
+        private final List<ScoreIndex> bySubject = new ArrayList<>();
+        // Running sums and counts per student, and per subject then student
+        private double[] sums = new double[0];
+        private int[] counts = new int[0];
+        private final List<double[]> subjectSums = new ArrayList<>();
+        private final List<int[]> subjectCounts = new ArrayList<>();
+        // During a bulk load only the totals are kept; rankings are rebuilt once at the end
+        private boolean deferRanking;
+
+        public Leaderboard(Dictionary students, Dictionary subjects) {
+            this.students = students;
+            this.subjects = subjects;
+            this.overall = new ScoreIndex(students);
+        }
+
+        public void gradeAdded(Grade grade) {
+            gradeAdded(students.encode(grade.getStudentId()), subjects.encode(grade.getSubject()), grade.getGrade());
+        }
+
+        // For callers that already hold the dictionary codes
+        public void gradeAdded(int student, int subject, double value) {
+            apply(student, subject, value, 1);
+        }
+
+        public void gradeChanged(Grade grade, double oldValue) {
+            apply(students.encode(grade.getStudentId()), subjects.encode(grade.getSubject()), grade.getGrade() - oldValue, 0);
+        }
+
+        public void studentRemoved(String studentId) {
+            int student = students.lookup(studentId);
+            if (student < 0) {
+                return;
+            }
+            overall.remove(student);
+            if (student < sums.length) {
+                sums[student] = 0;
+                counts[student] = 0;
+            }
+            for (int subject = 0; subject < bySubject.size(); subject++) {
+                bySubject.get(subject).remove(student);
+                if (student < subjectSums.get(subject).length) {
+                    subjectSums.get(subject)[student] = 0;
+                    subjectCounts.get(subject)[student] = 0;
+                }
+            }
+        }
+
+        // Sizes the overall ranking for this many students up front; subject rankings grow as graded
+        public void reserve(int studentCount) {
+            if (studentCount > sums.length) {
+                sums = Arrays.copyOf(sums, studentCount);
+                counts = Arrays.copyOf(counts, studentCount);
+            }
+            overall.reserve(studentCount);
+        }
+
+        public void beginBulkLoad() {
+            deferRanking = true;
+        }
+
+        // Ranks every student once from the accumulated totals
+        public void endBulkLoad() {
+            deferRanking = false;
+            for (int student = 0; student < counts.length; student++) {
+                if (counts[student] > 0) {
+                    overall.put(student, sums[student] / counts[student]);
+                }
+            }
+            for (int subject = 0; subject < bySubject.size(); subject++) {
+                double[] subjectSum = subjectSums.get(subject);
+                int[] subjectCount = subjectCounts.get(subject);
+                for (int student = 0; student < subjectCount.length; student++) {
+                    if (subjectCount[student] > 0) {
+                        bySubject.get(subject).put(student, subjectSum[student] / subjectCount[student]);
+                    }
+                }
+            }
+        }
+
+        public ScoreIndex overall() { return overall; }
+
+        // An empty index for subjects nobody has been graded in
+        public ScoreIndex subject(String subject) {
+            int code = subjects.lookup(subject);
+            return code < 0 || code >= bySubject.size() ? new ScoreIndex(students) : bySubject.get(code);
+        }
+
+        private void apply(int student, int subject, double delta, int countDelta) {
+            if (student >= sums.length) {
+                sums = Arrays.copyOf(sums, Math.max(student + 1, sums.length * 2));
+                counts = Arrays.copyOf(counts, sums.length);
+            }
+            sums[student] += delta;
+            counts[student] += countDelta;
+
+            while (subject >= bySubject.size()) {
+                bySubject.add(new ScoreIndex(students));
+                subjectSums.add(new double[0]);
+                subjectCounts.add(new int[0]);
+            }
+            double[] subjectSum = subjectSums.get(subject);
+            int[] subjectCount = subjectCounts.get(subject);
+            if (student >= subjectSum.length) {
+                subjectSum = Arrays.copyOf(subjectSum, Math.max(student + 1, subjectSum.length * 2));
+                subjectCount = Arrays.copyOf(subjectCount, subjectSum.length);
+                subjectSums.set(subject, subjectSum);
+                subjectCounts.set(subject, subjectCount);
+            }
+            subjectSum[student] += delta;
+            subjectCount[student] += countDelta;
+
+            if (!deferRanking) {
+                overall.put(student, sums[student] / counts[student]);
+                bySubject.get(subject).put(student, subjectSum[student] / subjectCount[student]);
+            }
+        }
+    }
+
+    // Maps each distinct string in a column to a small int code
+    private static class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        public int encode(String value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+            }
+            return code;
+        }
+
+        // -1 if the value has never been seen
+        public int lookup(String value) {
+            Integer code = codes.get(value);
+            return code == null ? -1 : code;
+        }
+
+        public String decode(int code) { return values.get(code); }
+        public int size() { return values.size(); }
+    }
+
+    // Row numbers grouped by dictionary code, used as a secondary index on one column
+    private static class RowIndex {
+        private int[][] rows = new int[16][];
+        private int[] sizes = new int[16];
+
+        public void add(int code, int row) {
+            if (code >= rows.length) {
+                rows = Arrays.copyOf(rows, Math.max(code + 1, rows.length * 2));
+                sizes = Arrays.copyOf(sizes, rows.length);
+            }
+            if (rows[code] == null) {
+                rows[code] = new int[4];
+            } else if (sizes[code] == rows[code].length) {
+                rows[code] = Arrays.copyOf(rows[code], sizes[code] * 2);
+            }
+            rows[code][sizes[code]++] = row;
+        }
+
+        public int[] rows(int code) { return code < rows.length && rows[code] != null ? rows[code] : new int[0]; }
+        public int size(int code) { return code < sizes.length ? sizes[code] : 0; }
+    }
+
+    // Columnar copy of the grade list: dictionary-coded ids, epoch-day dates and primitive grade values
+    private static class GradeColumns {
+        private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+        // Day stored for dates not in MM/dd/yyyy (snapshots keep those verbatim); falls outside every date range
+        private static final int UNDATED = Integer.MIN_VALUE;
+
+        private final Dictionary students = new Dictionary();
+        private final Dictionary teachers = new Dictionary();
+        private final Dictionary subjects = new Dictionary();
+        private final Map<String, Integer> epochDays = new HashMap<>();
+        private final RowIndex byStudent = new RowIndex();
+        private final RowIndex byTeacher = new RowIndex();
+        private final RowIndex bySubject = new RowIndex();
+
+        private Grade[] rowGrades = new Grade[64];
+        private int[] student = new int[64];
+        private int[] teacher = new int[64];
+        private int[] subject = new int[64];
+        private int[] day = new int[64];
+        private double[] value = new double[64];
+        private int size;
+
+        // Returns the new row
+        public int append(Grade grade) {
+            if (size == value.length) {
+                grow(size * 2);
+            }
+            int row = size++;
+            rowGrades[row] = grade;
+            student[row] = students.encode(grade.getStudentId());
+            teacher[row] = teachers.encode(grade.getTeacherId());
+            subject[row] = subjects.encode(grade.getSubject());
+            day[row] = epochDays.computeIfAbsent(grade.getDate(), GradeColumns::epochDayOf);
+            value[row] = grade.getGrade();
+            byStudent.add(student[row], row);
+            byTeacher.add(teacher[row], row);
+            bySubject.add(subject[row], row);
+            return row;
+        }
+
+        public Grade grade(int row) { return rowGrades[row]; }
+        public int size() { return size; }
+
+        // Makes room for this many more rows at once, for bulk loads
+        public void reserve(int rows) {
+            if (size + rows > value.length) {
+                grow(size + rows);
+            }
+        }
+
+        private void grow(int capacity) {
+            rowGrades = Arrays.copyOf(rowGrades, capacity);
+            student = Arrays.copyOf(student, capacity);
+            teacher = Arrays.copyOf(teacher, capacity);
+            subject = Arrays.copyOf(subject, capacity);
+            day = Arrays.copyOf(day, capacity);
+            value = Arrays.copyOf(value, capacity);
+        }
+
+        private static int epochDayOf(String date) {
+            try {
+                return (int) LocalDate.parse(date, DATE_FORMAT).toEpochDay();
+            } catch (DateTimeParseException ex) {
+                return UNDATED;
+            }
+        }
+    }
+
+    // Running count/sum/min/max over grade values
+    private static class GradeStats {
+        private long count;
+        private double sum;
+        private double min;
+        private double max;
+
+        public GradeStats() { reset(); }
+
+        public void reset() {
+            count = 0;
+            sum = 0;
+            min = Double.POSITIVE_INFINITY;
+            max = Double.NEGATIVE_INFINITY;
+        }
+
+        public void set(long count, double sum, double min, double max) {
+            this.count = count;
+            this.sum = sum;
+            this.min = min;
+            this.max = max;
+        }
+
+        public void accept(double value) {
+            count++;
+            sum += value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        public long getCount() { return count; }
+        public double getAverage() { return count == 0 ? 0 : sum / count; }
+        public double getMin() { return count == 0 ? 0 : min; }
+        public double getMax() { return count == 0 ? 0 : max; }
+    }
+
+    // Fluent filter/aggregate over GradeColumns. Scans the smallest applicable row index, or every row
+    // otherwise; full scans above PARALLEL_THRESHOLD can be split across cores. A query object is meant
+    // to be reset and reused, and aggregate() returns the same GradeStats each time, so per-user
+    // lookups do not allocate.
+    private static class GradeQuery {
+        private static final int ANY = -1;
+        private static final int NONE = -2;
+        private static final int PARALLEL_THRESHOLD = 200_000;
+
+        private final GradeColumns columns;
+        private final GradeStats stats = new GradeStats();
+        private final IntConsumer accumulate;
+        private int studentCode;
+        private int teacherCode;
+        private int subjectCode;
+        private double minGrade;
+        private double maxGradeExclusive;
+        private long fromDay;
+        private long toDay;
+        private boolean parallel;
+
+        public GradeQuery(GradeColumns columns) {
+            this.columns = columns;
+            this.accumulate = row -> stats.accept(columns.value[row]);
+            reset();
+        }
+
+        public GradeQuery reset() {
+            studentCode = ANY;
+            teacherCode = ANY;
+            subjectCode = ANY;
+            minGrade = Double.NEGATIVE_INFINITY;
+            maxGradeExclusive = Double.POSITIVE_INFINITY;
+            fromDay = Long.MIN_VALUE;
+            toDay = Long.MAX_VALUE;
+            parallel = false;
+            return this;
+        }
+
+        public GradeQuery student(String studentId) { studentCode = code(columns.students, studentId); return this; }
+        public GradeQuery teacher(String teacherId) { teacherCode = code(columns.teachers, teacherId); return this; }
+        public GradeQuery subject(String subject) { subjectCode = code(columns.subjects, subject); return this; }
+        public GradeQuery gradeBelow(double bound) { maxGradeExclusive = bound; return this; }
+
+        public GradeQuery gradeBetween(double min, double max) {
+            minGrade = min;
+            maxGradeExclusive = Math.nextUp(max);
+            return this;
+        }
+
+        public GradeQuery dateBetween(LocalDate from, LocalDate to) {
+            fromDay = from.toEpochDay();
+            toDay = to.toEpochDay();
+            return this;
+        }
+
+        public GradeQuery parallel(boolean parallel) { this.parallel = parallel; return this; }
+
+        public GradeStats aggregate() {
+            stats.reset();
+            if (isFullScan() && parallel && columns.size() >= PARALLEL_THRESHOLD) {
+                DoubleSummaryStatistics summary = IntStream.range(0, columns.size()).parallel()
+                        .filter(this::matches)
+                        .mapToDouble(row -> columns.value[row])
+                        .summaryStatistics();
+                stats.set(summary.getCount(), summary.getSum(), summary.getMin(), summary.getMax());
+            } else {
+                forEachRow(accumulate);
+            }
+            return stats;
+        }
+
+        // Matching rows as a bitmap, for combining selections or handing to other views
+        public BitSet select() {
+            BitSet selection = new BitSet(columns.size());
+            forEachRow(selection::set);
+            return selection;
+        }
+
+        public List<Grade> list() {
+            List<Grade> result = new ArrayList<>();
+            forEachRow(row -> result.add(columns.grade(row)));
+            return result;
+        }
+
+        public Map<String, GradeStats> groupBySubject() { return groupBy(columns.subject, columns.subjects); }
+        public Map<String, GradeStats> groupByStudent() { return groupBy(columns.student, columns.students); }
+
+        public void forEachRow(IntConsumer action) {
+            if (studentCode == NONE || teacherCode == NONE || subjectCode == NONE) {
+                return;
+            }
+
+            int[] candidates = null;
+            int candidateCount = columns.size();
+            if (studentCode != ANY && columns.byStudent.size(studentCode) < candidateCount) {
+                candidates = columns.byStudent.rows(studentCode);
+                candidateCount = columns.byStudent.size(studentCode);
+            }
+            if (teacherCode != ANY && columns.byTeacher.size(teacherCode) < candidateCount) {
+                candidates = columns.byTeacher.rows(teacherCode);
+                candidateCount = columns.byTeacher.size(teacherCode);
+            }
+            if (subjectCode != ANY && columns.bySubject.size(subjectCode) < candidateCount) {
+                candidates = columns.bySubject.rows(subjectCode);
+                candidateCount = columns.bySubject.size(subjectCode);
+            }
+
+            for (int i = 0; i < candidateCount; i++) {
+                int row = candidates == null ? i : candidates[i];
+                if (matches(row)) {
+                    action.accept(row);
+                }
+            }
+        }
+
+        private Map<String, GradeStats> groupBy(int[] column, Dictionary dictionary) {
+            GradeStats[] groups = new GradeStats[dictionary.size()];
+            forEachRow(row -> {
+                int code = column[row];
+                if (groups[code] == null) {
+                    groups[code] = new GradeStats();
+                }
+                groups[code].accept(columns.value[row]);
+            });
+
+            Map<String, GradeStats> result = new TreeMap<>();
+            for (int code = 0; code < groups.length; code++) {
+                if (groups[code] != null) {
+                    result.put(dictionary.decode(code), groups[code]);
+                }
+            }
+            return result;
+        }
+
+        private boolean isFullScan() {
+            return studentCode == ANY && teacherCode == ANY && subjectCode == ANY;
+        }
+
+        private boolean matches(int row) {
+            double value = columns.value[row];
+            int day = columns.day[row];
+            return (studentCode == ANY || columns.student[row] == studentCode)
+                    && (teacherCode == ANY || columns.teacher[row] == teacherCode)
+                    && (subjectCode == ANY || columns.subject[row] == subjectCode)
+                    && value >= minGrade && value < maxGradeExclusive
+                    && day >= fromDay && day <= toDay;
+        }
+
+        private static int code(Dictionary dictionary, String value) {
+            int code = dictionary.lookup(value);
+            return code < 0 ? NONE : code;
+        }
+    }
+
+    // Grade write path with group commit. A single writer thread takes everything queued since its last
+    // commit, appends it to the journal with one force(), acknowledges the callers and then hands the
+    // batch to the applier. Without a journal, batches are applied as soon as they are taken.
+    private static class GradeWriteQueue {
+        private static final int MAX_BATCH = 4096;
+        private static final int HEADER_BYTES = 12;
+        // A record is a long, a double and four writeUTF strings of at most 65535 bytes each
+        private static final int MAX_RECORD = 8 + 8 + 4 * (2 + 65535);
+
+        private final BlockingQueue<PendingWrite> queue;
+        private final FileChannel journal;
+        private final Consumer<List<Grade>> applier;
+        private final Thread writer;
+        private volatile boolean closed;
+
+        private static class PendingWrite {
+            private final Grade grade;
+            private final CompletableFuture<Grade> done = new CompletableFuture<>();
+
+            PendingWrite(Grade grade) { this.grade = grade; }
+        }
+
+        // applier is called on the writer thread and must hand the batch off to the FX thread itself;
+        // a null journal keeps grades in memory only
+        public GradeWriteQueue(FileChannel journal, int capacity, Consumer<List<Grade>> applier) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.journal = journal;
+            this.applier = applier;
+            this.writer = new Thread(this::writeLoop, "grade-writer");
+            this.writer.setDaemon(true);
+        }
+
+        public static GradeWriteQueue open(Path journalPath, int capacity, Consumer<List<Grade>> applier) throws IOException {
+            return new GradeWriteQueue(FileChannel.open(journalPath, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE), capacity, applier);
+        }
+
+        // Streams back every complete record in the journal and cuts off a torn tail left by a crash.
+        // Each record is (int length, long CRC32 of length and payload, payload). Only a tail shorter
+        // than one maximum-size record can be torn: a record that runs past the end of the file, or
+        // fails its checksum while ending exactly at it. Anything else that does not check out is
+        // corruption, not a crash, and fails recovery without truncating. Must be called before start().
+        public List<Grade> recover() throws IOException {
+            List<Grade> recovered = new ArrayList<>();
+            if (journal == null) {
+                return recovered;
+            }
+
+            long size = journal.size();
+            long position = 0;
+            // Not closed: that would close the journal channel too
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(journal.position(0)), 1 << 16));
+            while (size - position >= HEADER_BYTES) {
+                int length = in.readInt();
+                long checksum = in.readLong();
+                boolean tail = size - position < HEADER_BYTES + MAX_RECORD;
+                if (length < 0 || length > MAX_RECORD) {
+                    throw new IOException("Grade journal is corrupt at byte " + position);
+                }
+                long end = position + HEADER_BYTES + length;
+                if (end > size) {
+                    if (!tail) {
+                        throw new IOException("Grade journal is corrupt at byte " + position);
+                    }
+                    break;
+                }
+                byte[] record = new byte[length];
+                in.readFully(record);
+                if (checksum(record) != checksum) {
+                    if (end < size) {
+                        throw new IOException("Grade journal is corrupt at byte " + position);
+                    }
+                    break;
+                }
+                recovered.add(decode(record));
+                position = end;
+            }
+
+            if (position < size) {
+                journal.truncate(position);
+            }
+            journal.position(position);
+            return recovered;
+        }
+
+        public void start() {
+            writer.start();
+        }
+
+        public CompletableFuture<Grade> submit(Grade grade) {
+            PendingWrite write = new PendingWrite(grade);
+            try {
+                if (closed) {
+                    throw new IllegalStateException("Grade writer is closed");
+                }
+                queue.put(write);
+                // close() may have finished between the check and the put; whoever takes the write
+                // out of the queue (here, the writer or close()) completes its future
+                if (closed && queue.remove(write)) {
+                    throw new IllegalStateException("Grade writer is closed");
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                write.done.completeExceptionally(ex);
+            } catch (IllegalStateException ex) {
+                write.done.completeExceptionally(ex);
+            }
+            return write.done;
+        }
+
+        // Stops accepting writes and waits for queued ones to be committed; any the writer did not
+        // reach in time are failed rather than left pending
+        public void close() throws IOException {
+            closed = true;
+            try {
+                writer.join(5000);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            List<PendingWrite> abandoned = new ArrayList<>();
+            queue.drainTo(abandoned);
+            for (PendingWrite write : abandoned) {
+                write.done.completeExceptionally(new IllegalStateException("Grade writer is closed"));
+            }
+            if (journal != null) {
+                journal.close();
+            }
+        }
+
+        private void writeLoop() {
+            List<PendingWrite> batch = new ArrayList<>(MAX_BATCH);
+            while (!closed || !queue.isEmpty()) {
+                try {
+                    PendingWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                queue.drainTo(batch, MAX_BATCH - 1);
+                commit(batch);
+                batch.clear();
+            }
+        }
+
+        private void commit(List<PendingWrite> batch) {
+            List<Grade> committed = new ArrayList<>(batch.size());
+            try {
+                if (journal != null) {
+                    ByteArrayOutputStream bytes = new ByteArrayOutputStream(batch.size() * 64);
+                    DataOutputStream out = new DataOutputStream(bytes);
+                    for (PendingWrite write : batch) {
+                        byte[] record = encode(write.grade);
+                        out.writeInt(record.length);
+                        out.writeLong(checksum(record));
+                        out.write(record);
+                    }
+                    ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+                    while (buffer.hasRemaining()) {
+                        journal.write(buffer);
+                    }
+                    journal.force(false);
+                }
+            } catch (IOException ex) {
+                for (PendingWrite write : batch) {
+                    write.done.completeExceptionally(ex);
+                }
+                return;
+            }
+
+            for (PendingWrite write : batch) {
+                committed.add(write.grade);
+                write.done.complete(write.grade);
+            }
+            applier.accept(committed);
+        }
+
+        // Covers the length prefix too, so a damaged length cannot pass as a valid record
+        private static long checksum(byte[] record) {
+            CRC32 crc = new CRC32();
+            crc.update(ByteBuffer.allocate(4).putInt(0, record.length));
+            crc.update(record);
+            return crc.getValue();
+        }
+
+        private static byte[] encode(Grade grade) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeLong(grade.getId());
+            out.writeUTF(grade.getStudentId());
+            out.writeUTF(grade.getSubject());
+            out.writeDouble(grade.getGrade());
+            out.writeUTF(grade.getDate());
+            out.writeUTF(grade.getTeacherId());
+            return bytes.toByteArray();
+        }
+
+        private static Grade decode(byte[] record) throws IOException {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+            long id = in.readLong();
+            String studentId = in.readUTF();
+            String subject = in.readUTF();
+            double grade = in.readDouble();
+            String date = in.readUTF();
+            String teacherId = in.readUTF();
+            return new Grade(id, studentId, subject, grade, date, teacherId);
+        }
+    }
+
+    // Versioned binary snapshot of users, grades and notifications, used for exports and API payloads.
+    //   header:   int magic "SGMS", byte format version
+    //   strings:  varint count, then varint byte length + UTF-8 bytes for every distinct string
+    //   sections: byte tag, varint record count, records
+    // Each record starts with its varint byte length, so a reader skips trailing fields added by newer
+    // versions and missing sections read as empty. Ids and string references are varints, grades
+    // with at most two decimals are varint hundredths, and dates are zigzag epoch days.
+    private static class SnapshotFormat {
+        static final int MAGIC = 0x53474D53;
+        static final byte VERSION = 1;
+        static final byte SECTION_USERS = 1;
+        static final byte SECTION_GRADES = 2;
+        static final byte SECTION_NOTIFICATIONS = 3;
+        static final byte SECTION_REMOVED_USERS = 4;
+        static final int ROLE_STUDENT = 0;
+        static final int ROLE_TEACHER = 1;
+        static final int ROLE_ADMIN = 2;
+        static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+    }
+
+    // Growable byte array with varint writers
+    private static class ByteSink {
+        private byte[] bytes = new byte[256];
+        private int size;
+
+        public void writeByte(int value) {
+            ensure(1);
+            bytes[size++] = (byte) value;
+        }
+
+        public void writeVarint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        public void writeInt(int value) {
+            ensure(4);
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                bytes[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        public void writeLong(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        public void writeBytes(byte[] source, int offset, int length) {
+            ensure(length);
+            System.arraycopy(source, offset, bytes, size, length);
+            size += length;
+        }
+
+        public void writeRecord(ByteSink record) {
+            writeVarint(record.size);
+            writeBytes(record.bytes, 0, record.size);
+            record.size = 0;
+        }
+
+        public int size() { return size; }
+        public byte[] toByteArray() { return Arrays.copyOf(bytes, size); }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+    }
+
+    private static class SnapshotWriter {
+        private final Dictionary strings = new Dictionary();
+        private final ByteSink users = new ByteSink();
+        private final ByteSink grades = new ByteSink();
+        private final ByteSink notifications = new ByteSink();
+        private final ByteSink removedUsers = new ByteSink();
+        private final ByteSink record = new ByteSink();
+        private final Map<String, Long> dateHeaders = new HashMap<>();
+        private int userCount;
+        private int gradeCount;
+        private int notificationCount;
+        private int removedUserCount;
+
+        public SnapshotWriter addUser(User user, int role) {
+            record.writeVarint(role);
+            record.writeVarint(strings.encode(user.getUsername()));
+            record.writeVarint(strings.encode(user.getPassword()));
+            record.writeVarint(strings.encode(user.getFullName()));
+            users.writeRecord(record);
+            userCount++;
+            return this;
+        }
+
+        public SnapshotWriter addGrade(Grade grade) {
+            record.writeVarint(grade.getId());
+            record.writeVarint(strings.encode(grade.getStudentId()));
+            record.writeVarint(strings.encode(grade.getSubject()));
+            writeGradeValue(grade.getGrade());
+            writeDate(grade.getDate());
+            record.writeVarint(strings.encode(grade.getTeacherId()));
+            grades.writeRecord(record);
+            gradeCount++;
+            return this;
+        }
+
+        public SnapshotWriter removeUser(User user, int role) {
+            record.writeVarint(role);
+            record.writeVarint(strings.encode(user.getUsername()));
+            removedUsers.writeRecord(record);
+            removedUserCount++;
+            return this;
+        }
+
+        public SnapshotWriter addNotification(Notification notification) {
+            record.writeVarint(strings.encode(notification.getUserId()));
+            record.writeVarint(strings.encode(notification.getMessage()));
+            writeDate(notification.getDate());
+            notifications.writeRecord(record);
+            notificationCount++;
+            return this;
+        }
+
+        public byte[] toByteArray() {
+            ByteSink out = new ByteSink();
+            out.writeInt(SnapshotFormat.MAGIC);
+            out.writeByte(SnapshotFormat.VERSION);
+
+            out.writeVarint(strings.size());
+            for (int i = 0; i < strings.size(); i++) {
+                byte[] utf8 = strings.decode(i).getBytes(StandardCharsets.UTF_8);
+                out.writeVarint(utf8.length);
+                out.writeBytes(utf8, 0, utf8.length);
+            }
+
+            writeSection(out, SnapshotFormat.SECTION_USERS, userCount, users);
+            writeSection(out, SnapshotFormat.SECTION_GRADES, gradeCount, grades);
+            writeSection(out, SnapshotFormat.SECTION_NOTIFICATIONS, notificationCount, notifications);
+            if (removedUserCount > 0) {
+                writeSection(out, SnapshotFormat.SECTION_REMOVED_USERS, removedUserCount, removedUsers);
+            }
+            return out.toByteArray();
+        }
+
+        public void writeTo(Path path) throws IOException {
+            Files.write(path, toByteArray());
+        }
+
+        private static void writeSection(ByteSink out, byte tag, int count, ByteSink records) {
+            out.writeByte(tag);
+            out.writeVarint(count);
+            out.writeBytes(records.bytes, 0, records.size);
+        }
+
+        // Low bit 0: hundredths as a varint; low bit 1: raw double bits follow
+        private void writeGradeValue(double value) {
+            double hundredths = Math.rint(value * 100);
+            if (value >= 0 && hundredths / 100 == value && hundredths < Long.MAX_VALUE >> 2) {
+                record.writeVarint((long) hundredths << 1);
+            } else {
+                record.writeVarint(1);
+                record.writeLong(Double.doubleToLongBits(value));
+            }
+        }
+
+        // Low bit 0: zigzag epoch day; low bit 1: reference to the date string as written
+        private void writeDate(String date) {
+            record.writeVarint(dateHeaders.computeIfAbsent(String.valueOf(date), text -> {
+                try {
+                    long epochDay = LocalDate.parse(text, SnapshotFormat.DATE_FORMAT).toEpochDay();
+                    return ((epochDay << 1) ^ (epochDay >> 63)) << 1;
+                } catch (DateTimeParseException ex) {
+                    return ((long) strings.encode(text) << 1) | 1;
+                }
+            }));
+        }
+    }
+
+    // Reads a snapshot in place from a heap, direct or memory-mapped buffer. Strings are decoded on
+    // first use; records are read through a cursor without building intermediate objects.
+    private static class SnapshotReader {
+        private final ByteBuffer buffer;
+        private final int version;
+        private final int[] stringOffsets;
+        private final int[] stringLengths;
+        private final String[] decoded;
+        private final Map<Long, String> dates = new HashMap<>();
+        private final Map<Byte, int[]> sections = new HashMap<>();
+
+        public SnapshotReader(ByteBuffer source) throws IOException {
+            this.buffer = source.duplicate();
+            if (buffer.remaining() < 5 || buffer.getInt() != SnapshotFormat.MAGIC) {
+                throw new IOException("Not a grade snapshot");
+            }
+            version = buffer.get();
+            if (version < 1) {
+                throw new IOException("Unsupported snapshot version " + version);
+            }
+
+            try {
+                // Every string takes at least its length byte, and every record its length prefix, so no
+                // count or length can exceed the bytes left; checking first keeps a crafted file from
+                // moving the position backwards and looping over the same bytes
+                int stringCount = readSize(buffer);
+                stringOffsets = new int[stringCount];
+                stringLengths = new int[stringCount];
+                decoded = new String[stringCount];
+                for (int i = 0; i < stringCount; i++) {
+                    stringLengths[i] = readSize(buffer);
+                    stringOffsets[i] = buffer.position();
+                    buffer.position(buffer.position() + stringLengths[i]);
+                }
+
+                // Record where each section starts, skipping over records by their length prefix
+                while (buffer.hasRemaining()) {
+                    byte tag = buffer.get();
+                    int count = readSize(buffer);
+                    int start = buffer.position();
+                    for (int i = 0; i < count; i++) {
+                        int length = readSize(buffer);
+                        buffer.position(buffer.position() + length);
+                    }
+                    sections.put(tag, new int[] {start, count});
+                }
+            } catch (RuntimeException ex) {
+                // Buffer underflows and out-of-range positions from a truncated or damaged file
+                throw corrupt(ex);
+            }
+        }
+
+        public static SnapshotReader open(Path path) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                return new SnapshotReader(mapped);
+            }
+        }
+
+        public int getVersion() { return version; }
+
+        public String string(int ref) {
+            String value = decoded[ref];
+            if (value == null) {
+                byte[] utf8 = new byte[stringLengths[ref]];
+                ByteBuffer view = buffer.duplicate();
+                view.position(stringOffsets[ref]);
+                view.get(utf8);
+                value = new String(utf8, StandardCharsets.UTF_8);
+                decoded[ref] = value;
+            }
+            return value;
+        }
+
+        // Number of records in a section, 0 if it is absent
+        public int count(byte section) {
+            int[] bounds = sections.get(section);
+            return bounds == null ? 0 : bounds[1];
+        }
+
+        public RecordCursor records(byte section) {
+            int[] bounds = sections.getOrDefault(section, new int[] {buffer.limit(), 0});
+            return new RecordCursor(buffer.duplicate(), bounds[0], bounds[1]);
+        }
+
+        // The read methods decode one record at a time and hand it to the sink outside the guarded
+        // block, so only decoding failures are reported as a corrupt snapshot
+        public void readUsers(BiConsumer<Integer, User> sink) throws IOException {
+            RecordCursor cursor = records(SnapshotFormat.SECTION_USERS);
+            while (true) {
+                int role;
+                User user;
+                try {
+                    if (!cursor.next()) {
+                        return;
+                    }
+                    role = (int) cursor.readVarint();
+                    user = new User(cursor.readString(), cursor.readString(), cursor.readString());
+                } catch (RuntimeException ex) {
+                    throw corrupt(ex);
+                }
+                sink.accept(role, user);
+            }
+        }
+
+        public void readGrades(Consumer<Grade> sink) throws IOException {
+            RecordCursor cursor = records(SnapshotFormat.SECTION_GRADES);
+            while (true) {
+                Grade grade;
+                try {
+                    if (!cursor.next()) {
+                        return;
+                    }
+                    long id = cursor.readVarint();
+                    String studentId = cursor.readString();
+                    String subject = cursor.readString();
+                    double value = cursor.readGradeValue();
+                    String date = cursor.readDate();
+                    grade = new Grade(id, studentId, subject, value, date, cursor.readString());
+                } catch (RuntimeException ex) {
+                    throw corrupt(ex);
+                }
+                sink.accept(grade);
+            }
+        }
+
+        public void readRemovedUsers(BiConsumer<Integer, String> sink) throws IOException {
+            RecordCursor cursor = records(SnapshotFormat.SECTION_REMOVED_USERS);
+            while (true) {
+                int role;
+                String username;
+                try {
+                    if (!cursor.next()) {
+                        return;
+                    }
+                    role = (int) cursor.readVarint();
+                    username = cursor.readString();
+                } catch (RuntimeException ex) {
+                    throw corrupt(ex);
+                }
+                sink.accept(role, username);
+            }
+        }
+
+        public void readNotifications(Consumer<Notification> sink) throws IOException {
+            RecordCursor cursor = records(SnapshotFormat.SECTION_NOTIFICATIONS);
+            while (true) {
+                Notification notification;
+                try {
+                    if (!cursor.next()) {
+                        return;
+                    }
+                    notification = new Notification(cursor.readString(), cursor.readString(), cursor.readDate());
+                } catch (RuntimeException ex) {
+                    throw corrupt(ex);
+                }
+                sink.accept(notification);
+            }
+        }
+
+        // A count or byte length, which can never exceed what is left of the buffer
+        private static int readSize(ByteBuffer buffer) throws IOException {
+            long value = readVarint(buffer);
+            if (value < 0 || value > buffer.remaining()) {
+                throw new IOException("Snapshot is truncated or corrupt");
+            }
+            return (int) value;
+        }
+
+        private static IOException corrupt(RuntimeException cause) {
+            return new IOException("Snapshot is truncated or corrupt", cause);
+        }
+
+        private static long readVarint(ByteBuffer buffer) {
+            long value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = buffer.get();
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+        }
+
+        // Walks the records of one section; next() always lands on the following record boundary
+        private class RecordCursor {
+            private final ByteBuffer records;
+            private int remaining;
+            private int recordEnd;
+
+            RecordCursor(ByteBuffer records, int start, int count) {
+                this.records = records;
+                this.records.position(start);
+                this.remaining = count;
+                this.recordEnd = start;
+            }
+
+            public boolean next() {
+                if (remaining == 0) {
+                    return false;
+                }
+                records.position(recordEnd);
+                long length = SnapshotReader.readVarint(records);
+                if (length < 0 || length > records.remaining()) {
+                    throw new IllegalArgumentException("Record length " + length + " overruns the snapshot");
+                }
+                recordEnd = records.position() + (int) length;
+                remaining--;
+                return true;
+            }
+
+            public long readVarint() { return SnapshotReader.readVarint(records); }
+            public String readString() { return string((int) readVarint()); }
+
+            public double readGradeValue() {
+                long header = readVarint();
+                return (header & 1) == 0 ? (header >>> 1) / 100.0 : Double.longBitsToDouble(records.getLong());
+            }
+
+            public String readDate() {
+                long header = readVarint();
+                if ((header & 1) == 1) {
+                    return string((int) (header >>> 1));
+                }
+                long zigzag = header >>> 1;
+                return dates.computeIfAbsent((zigzag >>> 1) ^ -(zigzag & 1),
+                        epochDay -> LocalDate.ofEpochDay(epochDay).format(SnapshotFormat.DATE_FORMAT));
+            }
+        }
+    }
+
+    // Compares the snapshot encoding of generated grades with Java serialization and JSON, for size and
+    // for encode/decode time. Run with: java ... StudentGradeManagementSystem --benchmark[=grades]
+    private static class CodecBenchmark {
+        private static final int ROUNDS = 5;
+
+        private final List<Grade> grades = new ArrayList<>();
+
+        public CodecBenchmark(long gradeCount) {
+            new SyntheticDataGenerator(42, 20000, 400, gradeCount).generate(student -> { }, teacher -> { }, grades::add);
+        }
+
+        public void run(PrintStream out) throws Exception {
+            out.printf("%,d grades, best of %d rounds%n", grades.size(), ROUNDS);
+            out.printf("%-18s %12s %10s %10s%n", "format", "bytes", "encode ms", "decode ms");
+            long[] binary = measure(out, "binary snapshot", this::encodeSnapshot, this::decodeSnapshot);
+            long[] java = measure(out, "java serialization", this::encodeSerialized, this::decodeSerialized);
+            long[] json = measure(out, "json", this::encodeJson, this::decodeJson);
+            for (long[] other : Arrays.asList(java, json)) {
+                out.printf("%-18s %11.1fx %9.1fx %9.1fx%n", other == java ? "vs java" : "vs json",
+                        (double) other[0] / binary[0], (double) other[1] / binary[1], (double) other[2] / binary[2]);
+            }
+        }
+
+        private interface Encoder { byte[] encode() throws Exception; }
+        private interface Decoder { int decode(byte[] bytes) throws Exception; }
+
+        // {size, best encode nanos, best decode nanos}
+        private long[] measure(PrintStream out, String name, Encoder encoder, Decoder decoder) throws Exception {
+            byte[] bytes = null;
+            long encode = Long.MAX_VALUE;
+            long decode = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                bytes = encoder.encode();
+                encode = Math.min(encode, System.nanoTime() - start);
+
+                start = System.nanoTime();
+                int decoded = decoder.decode(bytes);
+                decode = Math.min(decode, System.nanoTime() - start);
+                if (decoded != grades.size()) {
+                    throw new IllegalStateException(name + " decoded " + decoded + " of " + grades.size() + " grades");
+                }
+            }
+            out.printf("%-18s %,12d %10d %10d%n", name, bytes.length, encode / 1_000_000, decode / 1_000_000);
+            return new long[] {bytes.length, encode, decode};
+        }
+
+        private byte[] encodeSnapshot() {
+            SnapshotWriter writer = new SnapshotWriter();
+            grades.forEach(writer::addGrade);
+            return writer.toByteArray();
+        }
+
+        private int decodeSnapshot(byte[] bytes) throws IOException {
+            List<Grade> decoded = new ArrayList<>();
+            new SnapshotReader(ByteBuffer.wrap(bytes)).readGrades(decoded::add);
+            return decoded.size();
         }
 
-        public String getUsername() { return username; }
-        public String getPassword() { return password; }
-        public String getFullName() { return fullName; }
+        // Grade is not Serializable, so each one goes over as an array of its fields
+        private byte[] encodeSerialized() throws IOException {
+            List<Object[]> rows = new ArrayList<>(grades.size());
+            for (Grade grade : grades) {
+                rows.add(new Object[] {grade.getId(), grade.getStudentId(), grade.getSubject(), grade.getGrade(),
+                        grade.getDate(), grade.getTeacherId()});
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(rows);
+            }
+            return bytes.toByteArray();
+        }
+
+        private int decodeSerialized(byte[] bytes) throws IOException, ClassNotFoundException {
+            List<Grade> decoded = new ArrayList<>();
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                for (Object row : (List<?>) in.readObject()) {
+                    Object[] fields = (Object[]) row;
+                    decoded.add(new Grade((Long) fields[0], (String) fields[1], (String) fields[2], (Double) fields[3],
+                            (String) fields[4], (String) fields[5]));
+                }
+            }
+            return decoded.size();
+        }
+
+        // Hand-written JSON in the shape an API would send: an array of objects with named fields.
+        // Generated ids contain no characters that need escaping.
+        private byte[] encodeJson() {
+            StringBuilder json = new StringBuilder(grades.size() * 110).append('[');
+            for (Grade grade : grades) {
+                if (json.length() > 1) {
+                    json.append(',');
+                }
+                json.append("{\"id\":").append(grade.getId())
+                        .append(",\"studentId\":\"").append(grade.getStudentId())
+                        .append("\",\"subject\":\"").append(grade.getSubject())
+                        .append("\",\"grade\":").append(grade.getGrade())
+                        .append(",\"date\":\"").append(grade.getDate())
+                        .append("\",\"teacherId\":\"").append(grade.getTeacherId())
+                        .append("\"}");
+            }
+            return json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+        }
+
+        // Minimal parser for an array of flat objects with string and number values
+        private int decodeJson(byte[] bytes) {
+            String json = new String(bytes, StandardCharsets.UTF_8);
+            List<Grade> decoded = new ArrayList<>();
+            Map<String, String> fields = new HashMap<>();
+            int i = json.indexOf('[') + 1;
+            while (true) {
+                i = json.indexOf('{', i);
+                if (i < 0) {
+                    break;
+                }
+                fields.clear();
+                i++;
+                while (json.charAt(i) != '}') {
+                    int keyStart = json.indexOf('"', i) + 1;
+                    int keyEnd = json.indexOf('"', keyStart);
+                    int valueStart = json.indexOf(':', keyEnd) + 1;
+                    int valueEnd;
+                    String value;
+                    if (json.charAt(valueStart) == '"') {
+                        valueEnd = json.indexOf('"', valueStart + 1) + 1;
+                        value = json.substring(valueStart + 1, valueEnd - 1);
+                    } else {
+                        valueEnd = valueStart;
+                        while (json.charAt(valueEnd) != ',' && json.charAt(valueEnd) != '}') {
+                            valueEnd++;
+                        }
+                        value = json.substring(valueStart, valueEnd);
+                    }
+                    fields.put(json.substring(keyStart, keyEnd), value);
+                    i = json.charAt(valueEnd) == ',' ? valueEnd + 1 : valueEnd;
+                }
+                decoded.add(new Grade(Long.parseLong(fields.get("id")), fields.get("studentId"), fields.get("subject"),
+                        Double.parseDouble(fields.get("grade")), fields.get("date"), fields.get("teacherId")));
+            }
+            return decoded.size();
+        }
     }
 
-    private static class Grade {
-        private long id;
-        private String studentId;
-        private String subject;
-        private double grade;
-        private String date;
-        private String teacherId;
+    // Primary side of replication: every mutation, encoded as a small snapshot, in sequence order.
+    // Entry n has sequence number n; entry 1 is a full snapshot taken when replication starts.
+    private static class ReplicationLog {
+        // Identifies this primary run, so replicas notice a restarted primary and resync from scratch
+        private final long epoch = new SplittableRandom().nextLong();
+        private final List<byte[]> entries = new ArrayList<>();
 
-        public Grade(long id, String studentId, String subject, double grade, String date, String teacherId) {
-            this.id = id;
-            this.studentId = studentId;
-            this.subject = subject;
-            this.grade = grade;
-            this.date = date;
-            this.teacherId = teacherId;
+        public long getEpoch() { return epoch; }
+
+        public synchronized long append(byte[] entry) {
+            entries.add(entry);
+            notifyAll();
+            return entries.size();
         }
 
-        public long getId() { return id; }
-        public String getStudentId() { return studentId; }
-        public String getSubject() { return subject; }
-        public double getGrade() { return grade; }
-        public String getDate() { return date; }
-        public String getTeacherId() { return teacherId; }
-        public void setGrade(double grade) { this.grade = grade; }
-        public void setDate(String date) { this.date = date; }
+        public synchronized long head() { return entries.size(); }
+        public synchronized byte[] get(long seq) { return entries.get((int) (seq - 1)); }
+
+        public synchronized void awaitBeyond(long seq, long timeoutMillis) throws InterruptedException {
+            if (entries.size() <= seq) {
+                wait(timeoutMillis);
+            }
+        }
     }
 
-    private static class Notification {
-        private String userId;
-        private String message;
-        private String date;
+    // Streams the replication log to replicas. A replica connects and proves it holds the shared secret
+    // by answering a random challenge with its HMAC-SHA256; only then does it read the log epoch, send
+    // the last sequence number it applied and receive frames of (long seq, int length, bytes). A frame
+    // with length -1 is a heartbeat carrying the current head.
+    private static class ReplicationServer {
+        private static final long HEARTBEAT_MILLIS = 1000;
+        private static final int HANDSHAKE_TIMEOUT_MILLIS = 5000;
+        private static final int CHALLENGE_BYTES = 32;
+
+        private final ReplicationLog log;
+        private final ServerSocket serverSocket;
+        private final byte[] secret;
+        private final SecureRandom random = new SecureRandom();
+        private final Set<Socket> replicas = ConcurrentHashMap.newKeySet();
+
+        public ReplicationServer(ReplicationLog log, InetAddress bindAddress, int port, byte[] secret) throws IOException {
+            this.log = log;
+            this.secret = secret.clone();
+            this.serverSocket = new ServerSocket(port, 50, bindAddress);
+        }
 
-        public Notification(String userId, String message, String date) {
-            this.userId = userId;
-            this.message = message;
-            this.date = date;
+        // Response a replica must send for the given challenge
+        public static byte[] proof(byte[] secret, byte[] challenge) {
+            try {
+                Mac mac = Mac.getInstance("HmacSHA256");
+                mac.init(new SecretKeySpec(secret, "HmacSHA256"));
+                return mac.doFinal(challenge);
+            } catch (GeneralSecurityException ex) {
+                // HmacSHA256 is a required algorithm on every Java platform
+                throw new IllegalStateException(ex);
+            }
         }
 
-        public String getUserId() { return userId; }
-        public String getMessage() { return message; }
-        public String getDate() { return date; }
+        public int getPort() { return serverSocket.getLocalPort(); }
+
+        public void start() {
+            Thread acceptor = new Thread(() -> {
+                while (!serverSocket.isClosed()) {
+                    try {
+                        Socket replica = serverSocket.accept();
+                        replicas.add(replica);
+                        Thread sender = new Thread(() -> serve(replica), "replication-sender-" + replica.getPort());
+                        sender.setDaemon(true);
+                        sender.start();
+                    } catch (IOException ex) {
+                        if (!serverSocket.isClosed()) {
+                            LOG.log(Level.WARNING, "Could not accept a replica connection", ex);
+                        }
+                    }
+                }
+            }, "replication-acceptor");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        public void close() throws IOException {
+            serverSocket.close();
+            for (Socket replica : replicas) {
+                replica.close();
+            }
+        }
+
+        private void serve(Socket replica) {
+            try (Socket socket = replica;
+                 DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+                socket.setTcpNoDelay(true);
+                socket.setSoTimeout(HANDSHAKE_TIMEOUT_MILLIS);
+                byte[] challenge = new byte[CHALLENGE_BYTES];
+                random.nextBytes(challenge);
+                out.write(challenge);
+                out.flush();
+                byte[] response = new byte[CHALLENGE_BYTES];
+                in.readFully(response);
+                if (!MessageDigest.isEqual(response, proof(secret, challenge))) {
+                    LOG.warning("Rejected replica at " + socket.getRemoteSocketAddress() + ": wrong replication secret");
+                    return;
+                }
+
+                out.writeLong(log.getEpoch());
+                out.flush();
+                long sent = in.readLong();
+                socket.setSoTimeout(0);
+                long lastFlush = System.currentTimeMillis();
+                while (true) {
+                    long head = log.head();
+                    if (sent > head) {
+                        return;
+                    }
+                    while (sent < head) {
+                        byte[] entry = log.get(++sent);
+                        out.writeLong(sent);
+                        out.writeInt(entry.length);
+                        out.write(entry);
+                    }
+
+                    long now = System.currentTimeMillis();
+                    if (now - lastFlush >= HEARTBEAT_MILLIS) {
+                        out.writeLong(head);
+                        out.writeInt(-1);
+                        lastFlush = now;
+                    }
+                    out.flush();
+                    log.awaitBeyond(sent, HEARTBEAT_MILLIS);
+                }
+            } catch (IOException ex) {
+                // Replica disconnected; it resumes from its last applied entry when it reconnects
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } finally {
+                replicas.remove(replica);
+            }
+        }
+    }
+
+    // Replica side: follows a primary's log, reconnecting with backoff and resuming from the last
+    // applied entry. Staleness is the time since the replica was last known to be caught up.
+    private static class ReplicaClient {
+        private static final int READ_TIMEOUT_MILLIS = 5000;
+        private static final long MAX_BACKOFF_MILLIS = 5000;
+
+        private final String host;
+        private final int port;
+        private final byte[] secret;
+        private final Consumer<byte[]> applier;
+        private final Runnable reset;
+        private volatile long epoch;
+        private volatile long appliedSeq;
+        private volatile long caughtUpAt;
+
+        // applier and reset are called on the replication thread, in log order
+        public ReplicaClient(String host, int port, byte[] secret, Consumer<byte[]> applier, Runnable reset) {
+            this.host = host;
+            this.port = port;
+            this.secret = secret.clone();
+            this.applier = applier;
+            this.reset = reset;
+        }
+
+        public void start() {
+            Thread follower = new Thread(this::follow, "replica-follower");
+            follower.setDaemon(true);
+            follower.start();
+        }
+
+        public long getAppliedSeq() { return appliedSeq; }
+
+        public long stalenessMillis() {
+            return caughtUpAt == 0 ? Long.MAX_VALUE : System.currentTimeMillis() - caughtUpAt;
+        }
+
+        private void follow() {
+            long backoff = 250;
+            while (!Thread.currentThread().isInterrupted()) {
+                try (Socket socket = new Socket()) {
+                    socket.connect(new InetSocketAddress(host, port), READ_TIMEOUT_MILLIS);
+                    socket.setSoTimeout(READ_TIMEOUT_MILLIS);
+                    DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                    DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+
+                    byte[] challenge = new byte[ReplicationServer.CHALLENGE_BYTES];
+                    in.readFully(challenge);
+                    out.write(ReplicationServer.proof(secret, challenge));
+                    out.flush();
+
+                    long primaryEpoch = in.readLong();
+                    if (primaryEpoch != epoch) {
+                        reset.run();
+                        epoch = primaryEpoch;
+                        appliedSeq = 0;
+                    }
+                    out.writeLong(appliedSeq);
+                    out.flush();
+                    backoff = 250;
+
+                    while (true) {
+                        long seq = in.readLong();
+                        int length = in.readInt();
+                        if (length < 0) {
+                            if (appliedSeq >= seq) {
+                                caughtUpAt = System.currentTimeMillis();
+                            }
+                            continue;
+                        }
+                        byte[] entry = new byte[length];
+                        in.readFully(entry);
+                        if (seq == appliedSeq + 1) {
+                            applier.accept(entry);
+                            appliedSeq = seq;
+                        }
+                    }
+                } catch (IOException ex) {
+                    try {
+                        Thread.sleep(backoff);
+                    } catch (InterruptedException interrupted) {
+                        return;
+                    }
+                    backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+                }
+            }
+        }
+    }
+
+    // Failed-login limiter keyed by username. Each key holds a sliding-window estimate built from the
+    // current and previous fixed windows, packed into one AtomicLong and updated by CAS, so checks and
+    // updates are O(1) and lock-free. At most maxKeys keys are tracked: once full, idle keys are swept
+    // at most once per window, and keys that still do not fit share a single overflow counter, so a
+    // flood of distinct names fails closed instead of growing the map.
+    private static class LoginThrottle {
+        private static final long COUNT_MASK = 0xFFFF;
+
+        private final int maxFailures;
+        private final long windowMillis;
+        private final long lockoutMillis;
+        private final int maxKeys;
+        // Window indexes count from construction so they fit in 32 bits for any window length
+        private final long origin = System.currentTimeMillis();
+        private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+        private final AtomicInteger tracked = new AtomicInteger();
+        private final Counter overflow = new Counter();
+        private final AtomicLong nextSweep = new AtomicLong();
+
+        // state packs window index (high 32 bits), previous window count (16 bits), current count (16 bits)
+        private static class Counter {
+            private final AtomicLong state = new AtomicLong();
+            private final AtomicLong lockedUntil = new AtomicLong();
+            private volatile long lastSeen;
+        }
+
+        public LoginThrottle(int maxFailures, long windowMillis, long lockoutMillis, int maxKeys) {
+            this.maxFailures = maxFailures;
+            this.windowMillis = windowMillis;
+            this.lockoutMillis = lockoutMillis;
+            this.maxKeys = maxKeys;
+        }
+
+        public boolean isBlocked(String key) {
+            Counter counter = counters.get(key);
+            if (counter == null) {
+                // An untracked key would land in the overflow counter while the map is full
+                if (tracked.get() < maxKeys) {
+                    return false;
+                }
+                counter = overflow;
+            }
+            long now = System.currentTimeMillis();
+            return counter.lockedUntil.get() > now || estimate(counter.state.get(), now) >= maxFailures;
+        }
+
+        public void recordFailure(String key) {
+            long now = System.currentTimeMillis();
+            Counter counter = counters.get(key);
+            if (counter == null) {
+                counter = track(key, now);
+            }
+            counter.lastSeen = now;
+
+            long window = (now - origin) / windowMillis;
+            long current;
+            long next;
+            do {
+                current = counter.state.get();
+                long currentWindow = current >>> 32;
+                long count = current & COUNT_MASK;
+                long previous = (current >>> 16) & COUNT_MASK;
+                if (currentWindow == window) {
+                    count = Math.min(count + 1, COUNT_MASK);
+                } else {
+                    previous = currentWindow == window - 1 ? count : 0;
+                    count = 1;
+                }
+                next = (window << 32) | (previous << 16) | count;
+            } while (!counter.state.compareAndSet(current, next));
+
+            if (estimate(next, now) >= maxFailures) {
+                counter.lockedUntil.accumulateAndGet(now + lockoutMillis, Math::max);
+            }
+        }
+
+        public void recordSuccess(String key) {
+            if (counters.remove(key) != null) {
+                tracked.decrementAndGet();
+            }
+        }
+
+        // Reserves a slot for a new key, or hands back the overflow counter when none is free
+        private Counter track(String key, long now) {
+            if (tracked.get() >= maxKeys) {
+                sweepIdle(now);
+            }
+            if (tracked.incrementAndGet() > maxKeys) {
+                tracked.decrementAndGet();
+                return overflow;
+            }
+            Counter created = new Counter();
+            Counter existing = counters.putIfAbsent(key, created);
+            if (existing != null) {
+                tracked.decrementAndGet();
+                return existing;
+            }
+            return created;
+        }
+
+        // Current count plus the part of the previous window still inside the sliding window
+        private double estimate(long state, long now) {
+            long window = (now - origin) / windowMillis;
+            long stateWindow = state >>> 32;
+            long count = state & COUNT_MASK;
+            long previous = (state >>> 16) & COUNT_MASK;
+            if (stateWindow == window - 1) {
+                previous = count;
+                count = 0;
+            } else if (stateWindow != window) {
+                return 0;
+            }
+            double elapsed = ((now - origin) % windowMillis) / (double) windowMillis;
+            return count + previous * (1 - elapsed);
+        }
+
+        // Drops keys whose failures have all aged out; one thread per window does the scan
+        private void sweepIdle(long now) {
+            long due = nextSweep.get();
+            if (now < due || !nextSweep.compareAndSet(due, now + windowMillis)) {
+                return;
+            }
+            for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+                Counter counter = entry.getValue();
+                if (counter.lockedUntil.get() <= now && now - counter.lastSeen > 2 * windowMillis
+                        && counters.remove(entry.getKey(), counter)) {
+                    tracked.decrementAndGet();
+                }
+            }
+        }
     }
 
     // Data storage
@@ -91,10 +2442,28 @@ public class StudentGradeManagementSystem extends Application {
     private List<User> admins = new ArrayList<>();
     private List<Grade> grades = new ArrayList<>();
     private List<Notification> notifications = new ArrayList<>();
+    private Set<String> studentIds = new HashSet<>();
+    private Set<String> teacherIds = new HashSet<>();
+    private GradeColumns gradeColumns = new GradeColumns();
+    private GradeKeyIndex gradeKeys = new GradeKeyIndex(gradeColumns.students);
+    private StudentViewCache studentViewCache = new StudentViewCache(256);
+    private Leaderboard leaderboard = new Leaderboard(gradeColumns.students, gradeColumns.subjects);
+    private GradeQuery gradeQuery = new GradeQuery(gradeColumns);
+    private DataValidator validator = new DataValidator(studentIds, teacherIds, gradeKeys);
+    private ChangeEventBus changeEvents = new ChangeEventBus(4096, 512);
+    private GradeWriteQueue gradeWrites;
+    private ReplicationLog replicationLog;
+    private ReplicationServer replicationServer;
+    private ReplicaClient replica;
+    private long maxStalenessMillis = 10000;
+    // Per-username only: the desktop UI has no client identity to throttle on, and one shared key
+    // would lock every user out together. A network front end should add a limiter keyed by remote address.
+    private LoginThrottle usernameThrottle = new LoginThrottle(5, 5 * 60_000, 15 * 60_000, 10_000);
 
     // Current state
-    private User currentUser;
-    private String currentUserType;
+    private volatile User currentUser;
+    private volatile String currentUserType;
+    private AtomicBoolean refreshPending = new AtomicBoolean();
     private Preferences prefs = Preferences.userNodeForPackage(StudentGradeManagementSystem.class);
 
     // UI components
@@ -109,7 +2478,17 @@ public class StudentGradeManagementSystem extends Application {
         this.primaryStage = primaryStage;
 
         // Initialize data
-        loadSampleData();
+        String primary = getParameters().getNamed().get("replica-of");
+        if (primary == null) {
+            loadSampleData();
+        }
+        openGradeJournal();
+        if (!startReplication(primary)) {
+            // A misconfigured replica must not carry on as an empty, writable standalone store
+            Platform.exit();
+            return;
+        }
+        changeEvents.subscribe(this::onDataChanged);
 
         // Create login screen
         VBox loginRoot = createLoginScreen();
@@ -125,24 +2504,300 @@ public class StudentGradeManagementSystem extends Application {
         primaryStage.show();
     }
 
+    @Override
+    public void stop() throws Exception {
+        gradeWrites.close();
+        if (replicationServer != null) {
+            replicationServer.close();
+        }
+    }
+
     // ========== DATA INITIALIZATION ==========
 
     private void loadSampleData() {
+        // Start from an exported snapshot when launched with --snapshot=<file>
+        Map<String, String> params = getParameters().getNamed();
+        if (params.containsKey("snapshot")) {
+            try {
+                loadSnapshot(Paths.get(params.get("snapshot")));
+                return;
+            } catch (IOException ex) {
+                // Drop whatever was read before the failure so sample data starts from empty
+                clearData();
+                showAlert("Could not load snapshot, using sample data: " + ex.getMessage());
+            }
+        }
+
         // Add admin user
         admins.add(new User("admin", "admin123", "System Administrator"));
 
+        // Generate a large dataset instead when launched with e.g. --students=50000 --teachers=800 --grades=1000000
+        if (params.containsKey("students") || params.containsKey("grades")) {
+            SyntheticDataGenerator generator = new SyntheticDataGenerator(
+                    Long.parseLong(params.getOrDefault("seed", "42")),
+                    Integer.parseInt(params.getOrDefault("students", "1000")),
+                    Integer.parseInt(params.getOrDefault("teachers", "50")),
+                    Long.parseLong(params.getOrDefault("grades", "20000")));
+            beginBulkLoad((int) Math.min(generator.gradeCount, Integer.MAX_VALUE - 8), generator.studentCount);
+            try {
+                generator.generate(student -> storeUser(student, "student"), teacher -> storeUser(teacher, "teacher"), this::storeGrade);
+            } finally {
+                endBulkLoad();
+            }
+            return;
+        }
+
         // Add sample teachers
-        teachers.add(new User("teacher1", "pass123", "John Smith"));
-        teachers.add(new User("teacher2", "pass123", "Jane Doe"));
+        storeUser(new User("teacher1", "pass123", "John Smith"), "teacher");
+        storeUser(new User("teacher2", "pass123", "Jane Doe"), "teacher");
 
         // Add sample students
-        students.add(new User("student1", "pass123", "Alice Johnson"));
-        students.add(new User("student2", "pass123", "Bob Williams"));
+        storeUser(new User("student1", "pass123", "Alice Johnson"), "student");
+        storeUser(new User("student2", "pass123", "Bob Williams"), "student");
 
         // Add sample grades
-        grades.add(new Grade(1, "student1", "Mathematics", 85, LocalDate.now().format(DateTimeFormatter.ofPattern("MM/dd/yyyy")), "teacher1"));
-        grades.add(new Grade(2, "student1", "Science", 75, LocalDate.now().format(DateTimeFormatter.ofPattern("MM/dd/yyyy")), "teacher1"));
-        grades.add(new Grade(3, "student2", "History", 92, LocalDate.now().format(DateTimeFormatter.ofPattern("MM/dd/yyyy")), "teacher2"));
+        addGrade(new Grade(1, "student1", "Mathematics", 85, LocalDate.now().format(DateTimeFormatter.ofPattern("MM/dd/yyyy")), "teacher1"));
+        addGrade(new Grade(2, "student1", "Science", 75, LocalDate.now().format(DateTimeFormatter.ofPattern("MM/dd/yyyy")), "teacher1"));
+        addGrade(new Grade(3, "student2", "History", 92, LocalDate.now().format(DateTimeFormatter.ofPattern("MM/dd/yyyy")), "teacher2"));
+    }
+
+    // Replays grades saved by earlier runs when launched with --journal=<file>, then starts the writer
+    private void openGradeJournal() {
+        String journal = getParameters().getNamed().get("journal");
+        Consumer<List<Grade>> applier = batch -> Platform.runLater(() -> batch.forEach(this::addGrade));
+        gradeWrites = new GradeWriteQueue(null, 16384, applier);
+
+        if (journal != null) {
+            try {
+                GradeWriteQueue journaled = GradeWriteQueue.open(Paths.get(journal), 16384, applier);
+                try {
+                    List<Grade> recovered = journaled.recover();
+                    beginBulkLoad(recovered.size(), 0);
+                    try {
+                        recovered.forEach(this::storeGrade);
+                    } finally {
+                        endBulkLoad();
+                    }
+                } catch (IOException ex) {
+                    journaled.close();
+                    throw ex;
+                }
+                gradeWrites = journaled;
+            } catch (IOException ex) {
+                showAlert("Could not open grade journal, new grades will not be saved: " + ex.getMessage());
+            }
+        }
+        gradeWrites.start();
+    }
+
+    private void loadSnapshot(Path path) throws IOException {
+        SnapshotReader reader = SnapshotReader.open(path);
+        reader.readUsers((role, user) -> {
+            if (role == SnapshotFormat.ROLE_ADMIN) {
+                admins.add(user);
+            } else {
+                storeUser(user, role == SnapshotFormat.ROLE_STUDENT ? "student" : "teacher");
+            }
+        });
+        beginBulkLoad(reader.count(SnapshotFormat.SECTION_GRADES), 0);
+        try {
+            reader.readGrades(this::storeGrade);
+        } finally {
+            endBulkLoad();
+        }
+        reader.readNotifications(notifications::add);
+    }
+
+    private void exportSnapshot(Path path) throws IOException {
+        buildSnapshot().writeTo(path);
+    }
+
+    private SnapshotWriter buildSnapshot() {
+        SnapshotWriter writer = new SnapshotWriter();
+        admins.forEach(admin -> writer.addUser(admin, SnapshotFormat.ROLE_ADMIN));
+        teachers.forEach(teacher -> writer.addUser(teacher, SnapshotFormat.ROLE_TEACHER));
+        students.forEach(student -> writer.addUser(student, SnapshotFormat.ROLE_STUDENT));
+        grades.forEach(writer::addGrade);
+        notifications.forEach(writer::addNotification);
+        return writer;
+    }
+
+    private static int roleOf(String userType) {
+        return userType.equals("student") ? SnapshotFormat.ROLE_STUDENT : SnapshotFormat.ROLE_TEACHER;
+    }
+
+    // --replicate-port=<port> serves this store's mutation log to replicas, on the loopback interface
+    // unless --replicate-bind=<address> says otherwise; --replica-of=<host:port> follows a primary
+    // instead and only allows student logins. Both sides need the same --replication-secret=<secret>.
+    // Returns false when the replication flags are unusable and the application should not start
+    private boolean startReplication(String primary) {
+        Map<String, String> params = getParameters().getNamed();
+        if (params.containsKey("max-staleness-ms")) {
+            maxStalenessMillis = Long.parseLong(params.get("max-staleness-ms"));
+        }
+        if (primary == null && !params.containsKey("replicate-port")) {
+            return true;
+        }
+        String secret = params.get("replication-secret");
+        if (secret == null || secret.isEmpty()) {
+            showAlert("Replication needs --replication-secret=<secret>, shared by the primary and its replicas");
+            return false;
+        }
+
+        if (primary != null) {
+            int colon = primary.lastIndexOf(':');
+            int port = -1;
+            if (colon > 0) {
+                try {
+                    port = Integer.parseInt(primary.substring(colon + 1));
+                } catch (NumberFormatException ex) {
+                    // reported below
+                }
+            }
+            if (port < 1 || port > 65535) {
+                showAlert("--replica-of must be <host>:<port>, got: " + primary);
+                return false;
+            }
+            replica = new ReplicaClient(primary.substring(0, colon), port,
+                    secret.getBytes(StandardCharsets.UTF_8),
+                    entry -> Platform.runLater(() -> applyReplicated(entry)),
+                    () -> Platform.runLater(this::clearData));
+            replica.start();
+        } else {
+            replicationLog = new ReplicationLog();
+            replicationLog.append(buildSnapshot().toByteArray());
+            try {
+                String bind = params.get("replicate-bind");
+                replicationServer = new ReplicationServer(replicationLog,
+                        bind == null ? InetAddress.getLoopbackAddress() : InetAddress.getByName(bind),
+                        Integer.parseInt(params.get("replicate-port")), secret.getBytes(StandardCharsets.UTF_8));
+                replicationServer.start();
+            } catch (IOException ex) {
+                replicationLog = null;
+                showAlert("Could not start replication: " + ex.getMessage());
+            }
+        }
+        return true;
+    }
+
+    private void applyReplicated(byte[] entry) {
+        try {
+            SnapshotReader reader = new SnapshotReader(ByteBuffer.wrap(entry));
+            reader.readUsers((role, user) -> {
+                if (role == SnapshotFormat.ROLE_ADMIN) {
+                    admins.add(user);
+                } else {
+                    addUser(user, role == SnapshotFormat.ROLE_STUDENT ? "student" : "teacher");
+                }
+            });
+            reader.readGrades(this::addGrade);
+            reader.readNotifications(notifications::add);
+            reader.readRemovedUsers((role, username) -> {
+                String userType = role == SnapshotFormat.ROLE_STUDENT ? "student" : "teacher";
+                (role == SnapshotFormat.ROLE_STUDENT ? students : teachers).stream()
+                        .filter(u -> u.getUsername().equals(username))
+                        .findFirst()
+                        .ifPresent(user -> removeUser(user, userType));
+            });
+        } catch (IOException ex) {
+            LOG.log(Level.SEVERE, "Could not apply a replicated entry; this replica may be missing changes", ex);
+        }
+    }
+
+    // Drops all data, for a replica that has to resync from a restarted primary
+    private void clearData() {
+        students.clear();
+        teachers.clear();
+        studentIds.clear();
+        teacherIds.clear();
+        admins.clear();
+        grades.clear();
+        notifications.clear();
+        gradeColumns = new GradeColumns();
+        gradeKeys = new GradeKeyIndex(gradeColumns.students);
+        validator = new DataValidator(studentIds, teacherIds, gradeKeys);
+        studentViewCache.invalidateAll();
+        leaderboard = new Leaderboard(gradeColumns.students, gradeColumns.subjects);
+        gradeQuery = new GradeQuery(gradeColumns);
+    }
+
+    // ========== DATA ACCESS ==========
+
+    // Adds to the grade list and its indexes without publishing, replicating or touching the view
+    // cache, for initial loads; a caller loading into a store with cached views invalidates them after
+    private void storeGrade(Grade grade) {
+        grades.add(grade);
+        // The key index and leaderboard share the columns' dictionaries, so reuse the row's codes
+        int row = gradeColumns.append(grade);
+        gradeKeys.add(gradeColumns.student[row], grade.getSubject(), grade.getDate());
+        leaderboard.gradeAdded(gradeColumns.student[row], gradeColumns.subject[row], grade.getGrade());
+    }
+
+    // Prepares for storing about this many more grades and students through storeGrade: sizes the
+    // grade list and indexes up front and defers ranking until endBulkLoad()
+    private void beginBulkLoad(int gradeCount, int studentCount) {
+        if (grades instanceof ArrayList) {
+            ((ArrayList<Grade>) grades).ensureCapacity(grades.size() + gradeCount);
+        }
+        gradeColumns.reserve(gradeCount);
+        gradeKeys.reserve(gradeKeys.size() + gradeCount);
+        leaderboard.reserve(students.size() + studentCount);
+        leaderboard.beginBulkLoad();
+    }
+
+    private void endBulkLoad() {
+        leaderboard.endBulkLoad();
+        studentViewCache.invalidateAll();
+    }
+
+    private void addGrade(Grade grade) {
+        storeGrade(grade);
+        studentViewCache.invalidate(grade.getStudentId());
+        if (replicationLog != null) {
+            replicationLog.append(new SnapshotWriter().addGrade(grade).toByteArray());
+        }
+        changeEvents.publish(new ChangeEvent(ChangeEvent.Type.GRADE_ADDED, grade.getStudentId(), grade));
+    }
+
+    // Adds to the user list and its username index without publishing, for initial loads
+    private void storeUser(User user, String userType) {
+        if (userType.equals("student")) {
+            students.add(user);
+            studentIds.add(user.getUsername());
+        } else {
+            teachers.add(user);
+            teacherIds.add(user.getUsername());
+        }
+    }
+
+    private void addUser(User user, String userType) {
+        storeUser(user, userType);
+        if (replicationLog != null) {
+            replicationLog.append(new SnapshotWriter().addUser(user, roleOf(userType)).toByteArray());
+        }
+        changeEvents.publish(new ChangeEvent(ChangeEvent.Type.USER_ADDED, user.getUsername(), user));
+    }
+
+    private void removeUser(User user, String userType) {
+        if (userType.equals("student")) {
+            students.remove(user);
+            studentIds.remove(user.getUsername());
+            studentViewCache.invalidate(user.getUsername());
+            leaderboard.studentRemoved(user.getUsername());
+        } else if (userType.equals("teacher")) {
+            teachers.remove(user);
+            teacherIds.remove(user.getUsername());
+        }
+        if (replicationLog != null) {
+            replicationLog.append(new SnapshotWriter().removeUser(user, roleOf(userType)).toByteArray());
+        }
+        changeEvents.publish(new ChangeEvent(ChangeEvent.Type.USER_REMOVED, user.getUsername(), user));
+    }
+
+    private StudentView getStudentView(String studentId) {
+        return studentViewCache.get(studentId, id -> new StudentView(
+                gradeQuery.reset().student(id).list(),
+                gradeQuery.reset().student(id).gradeBelow(30).aggregate().getCount()));
     }
 
     // ========== LOGIN SCREEN ==========
@@ -199,7 +2854,10 @@ public class StudentGradeManagementSystem extends Application {
         registerBtn.setStyle("-fx-background-color: #4CAF50; -fx-text-fill: white; -fx-padding: 10 15; -fx-background-radius: 8;");
         registerBtn.setOnAction(e -> showRegisterForm());
 
-        header.getChildren().addAll(title, spacer, registerBtn);
+        header.getChildren().addAll(title, spacer);
+        if (replica == null) {
+            header.getChildren().add(registerBtn);
+        }
         return header;
     }
 
@@ -212,7 +2870,12 @@ public class StudentGradeManagementSystem extends Application {
         Button adminLoginBtn = createLoginButton("Admin Login", "-fx-background-color: #2c3e50;", e -> showLoginForm("admin"));
         Button teacherLoginBtn = createLoginButton("Teacher Login", "-fx-background-color: #1a73e8;", e -> showLoginForm("teacher"));
 
-        options.getChildren().addAll(studentLoginBtn, adminLoginBtn, teacherLoginBtn);
+        // Replicas are read-only and only serve student dashboards
+        if (replica != null) {
+            options.getChildren().add(studentLoginBtn);
+        } else {
+            options.getChildren().addAll(studentLoginBtn, adminLoginBtn, teacherLoginBtn);
+        }
         return options;
     }
 
@@ -269,6 +2932,18 @@ public class StudentGradeManagementSystem extends Application {
         loginButton.setOnAction(e -> {
             String username = usernameField.getText();
             String password = passwordField.getText();
+            String throttleKey = currentUserType + ":" + username;
+
+            // Rejected before any credential lookup
+            if (usernameThrottle.isBlocked(throttleKey)) {
+                showAlert("Too many failed login attempts. Please try again later.");
+                return;
+            }
+
+            if (replica != null && replica.stalenessMillis() > maxStalenessMillis) {
+                showAlert("This server is catching up with the latest grades. Please try again shortly.");
+                return;
+            }
 
             if (currentUserType.equals("admin")) {
                 Optional<User> admin = admins.stream()
@@ -276,9 +2951,11 @@ public class StudentGradeManagementSystem extends Application {
                         .findFirst();
 
                 if (admin.isPresent()) {
+                    usernameThrottle.recordSuccess(throttleKey);
                     currentUser = admin.get();
                     showDashboard("admin");
                 } else {
+                    usernameThrottle.recordFailure(throttleKey);
                     showAlert("Invalid admin credentials");
                 }
             } else {
@@ -288,9 +2965,11 @@ public class StudentGradeManagementSystem extends Application {
                         .findFirst();
 
                 if (user.isPresent()) {
+                    usernameThrottle.recordSuccess(throttleKey);
                     currentUser = user.get();
                     showDashboard(currentUserType);
                 } else {
+                    usernameThrottle.recordFailure(throttleKey);
                     showAlert("Invalid credentials");
                 }
             }
@@ -356,29 +3035,23 @@ public class StudentGradeManagementSystem extends Application {
             String userType = userTypeCombo.getValue();
             String username = usernameField.getText();
             String password = passwordField.getText();
-            String fullName = fullNameField.getText();
+            String fullName = DataValidator.normalizeName(fullNameField.getText());
 
             if (userType == null || userType.isEmpty()) {
                 showAlert("Please select a user type");
                 return;
             }
 
-            if (username.isEmpty() || password.isEmpty() || fullName.isEmpty()) {
-                showAlert("All fields are required");
-                return;
-            }
-
-            List<User> userList = userType.equalsIgnoreCase("student") ? students : teachers;
+            User newUser = new User(username, password, fullName);
 
-            boolean usernameExists = userList.stream()
-                    .anyMatch(u -> u.getUsername().equals(username));
-
-            if (usernameExists) {
-                showAlert("Username already exists");
+            ValidationReport report = validator.validateUsers(List.of(newUser),
+                    userType.equalsIgnoreCase("student") ? studentIds : teacherIds);
+            if (!report.isValid()) {
+                showAlert(report.getErrors().get(0).getMessage());
                 return;
             }
 
-            userList.add(new User(username, password, fullName));
+            addUser(newUser, userType.toLowerCase());
             hideRegisterForm();
             showAlert("Registration successful! Please login.");
             showLoginForm(userType.toLowerCase());
@@ -443,6 +3116,36 @@ public class StudentGradeManagementSystem extends Application {
         primaryStage.setScene(dashboardScene);
     }
 
+    // Called on the dispatcher thread; a burst of changes collapses into a single pending rebuild
+    private void onDataChanged(List<ChangeEvent> events) {
+        User user = currentUser;
+        String userType = currentUserType;
+        if (user == null || events.stream().noneMatch(event -> affectsView(event, user, userType))) {
+            return;
+        }
+
+        if (refreshPending.compareAndSet(false, true)) {
+            Platform.runLater(() -> {
+                refreshPending.set(false);
+                if (currentUser != null && primaryStage.getScene() != loginScene) {
+                    showDashboard(currentUserType);
+                }
+            });
+        }
+    }
+
+    private boolean affectsView(ChangeEvent event, User user, String userType) {
+        switch (userType) {
+            case "student":
+                return event.getUserId().equals(user.getUsername());
+            case "teacher":
+                return event.getType() != ChangeEvent.Type.GRADE_ADDED
+                        || ((Grade) event.getPayload()).getTeacherId().equals(user.getUsername());
+            default:
+                return event.getType() != ChangeEvent.Type.NOTIFICATION_ADDED;
+        }
+    }
+
     private HBox createDashboardHeader(String userType) {
         HBox header = new HBox(15);
         header.setPadding(new Insets(0, 0, 15, 0));
@@ -480,19 +3183,17 @@ public class StudentGradeManagementSystem extends Application {
         VBox content = new VBox(20);
         content.setPadding(new Insets(20));
 
+        // Cached grade rows and summary values for this student
+        StudentView view = getStudentView(currentUser.getUsername());
+
         // Create status summary
-        VBox statusSummary = createStatusSummary();
+        VBox statusSummary = createStatusSummary(view);
 
         // Create grades table
         TableView<Grade> gradesTable = createGradesTable();
 
-        // Filter grades for this student
-        List<Grade> studentGrades = grades.stream()
-                .filter(g -> g.getStudentId().equals(currentUser.getUsername()))
-                .collect(Collectors.toList());
-
         // Add data to table
-        gradesTable.getItems().addAll(studentGrades);
+        gradesTable.getItems().addAll(view.getGrades());
 
         // Add components to dashboard
         content.getChildren().addAll(statusSummary, gradesTable);
@@ -505,7 +3206,7 @@ public class StudentGradeManagementSystem extends Application {
         return scrollPane;
     }
 
-    private VBox createStatusSummary() {
+    private VBox createStatusSummary(StudentView view) {
         VBox summary = new VBox(15);
         summary.setPadding(new Insets(20));
         summary.setStyle("-fx-background-color: white; -fx-background-radius: 10; -fx-effect: dropshadow(gaussian, rgba(0,0,0,0.05), 5, 0, 0, 2);");
@@ -517,13 +3218,8 @@ public class StudentGradeManagementSystem extends Application {
         HBox summaryContent = new HBox(30);
         summaryContent.setPadding(new Insets(10, 0, 0, 0));
 
-        // Filter grades for this student
-        List<Grade> studentGrades = grades.stream()
-                .filter(g -> g.getStudentId().equals(currentUser.getUsername()))
-                .collect(Collectors.toList());
-
-        int totalGrades = studentGrades.size();
-        long failedGrades = studentGrades.stream().filter(g -> g.getGrade() < 30).count();
+        int totalGrades = view.getTotalGrades();
+        long failedGrades = view.getFailedGrades();
         String overallStatus = failedGrades == 0 ? "Pass" : "Fail";
         String statusColorClass = failedGrades == 0 ? "-fx-background-color: rgba(76, 175, 80, 0.1); -fx-text-fill: #4CAF50;"
                 : "-fx-background-color: rgba(244, 67, 54, 0.1); -fx-text-fill: #f44336;";
@@ -547,7 +3243,17 @@ public class StudentGradeManagementSystem extends Application {
         statusValue.setStyle(statusColorClass + " -fx-padding: 3 8; -fx-background-radius: 4;");
         statusBox.getChildren().addAll(statusLabel, statusValue);
 
-        summaryContent.getChildren().addAll(totalBox, failedBox, statusBox);
+        // Rank is read live rather than cached, since other students' grades move it
+        ScoreIndex ranking = leaderboard.overall();
+        int rank = ranking.rank(currentUser.getUsername());
+        VBox rankBox = new VBox(5);
+        Label rankLabel = new Label("Class Rank");
+        Label rankValue = new Label(rank == 0 ? "-" : rank + " of " + ranking.size()
+                + " (" + ordinal((int) Math.round(ranking.percentile(ranking.scoreOf(currentUser.getUsername())))) + " percentile)");
+        rankValue.setFont(Font.font("System", FontWeight.BOLD, 16));
+        rankBox.getChildren().addAll(rankLabel, rankValue);
+
+        summaryContent.getChildren().addAll(totalBox, failedBox, statusBox, rankBox);
         summary.getChildren().addAll(title, summaryContent);
 
         return summary;
@@ -569,7 +3275,14 @@ public class StudentGradeManagementSystem extends Application {
         Label studentsCount = new Label("Total Students: " + students.size());
         studentsCount.setFont(Font.font("System", FontWeight.NORMAL, 14));
 
-        stats.getChildren().addAll(statsTitle, studentsCount);
+        StringBuilder topStudents = new StringBuilder("Top Students:");
+        for (String studentId : leaderboard.overall().top(5)) {
+            topStudents.append(String.format(" %s (%.1f)", studentId, leaderboard.overall().scoreOf(studentId)));
+        }
+        Label topStudentsLabel = new Label(topStudents.toString());
+        topStudentsLabel.setFont(Font.font("System", FontWeight.NORMAL, 14));
+
+        stats.getChildren().addAll(statsTitle, studentsCount, topStudentsLabel);
 
         // Create add grade form
         VBox addGradeForm = new VBox(15);
@@ -600,7 +3313,7 @@ public class StudentGradeManagementSystem extends Application {
 
         addGradeButton.setOnAction(e -> {
             String selectedStudent = studentSelect.getValue();
-            String subject = subjectField.getText();
+            String subject = DataValidator.normalizeName(subjectField.getText());
             String gradeText = gradeField.getText();
 
             if (selectedStudent == null || subject.isEmpty() || gradeText.isEmpty()) {
@@ -611,11 +3324,6 @@ public class StudentGradeManagementSystem extends Application {
             try {
                 double gradeValue = Double.parseDouble(gradeText);
 
-                if (gradeValue < 0 || gradeValue > 100) {
-                    showAlert("Grade must be between 0 and 100");
-                    return;
-                }
-
                 // Extract student username from selection
                 String studentUsername = selectedStudent.substring(selectedStudent.lastIndexOf("(") + 1, selectedStudent.lastIndexOf(")"));
 
@@ -624,16 +3332,23 @@ public class StudentGradeManagementSystem extends Application {
                 String currentDate = LocalDate.now().format(DateTimeFormatter.ofPattern("MM/dd/yyyy"));
                 Grade newGrade = new Grade(newId, studentUsername, subject, gradeValue, currentDate, currentUser.getUsername());
 
-                grades.add(newGrade);
+                ValidationReport report = validator.validateGrades(List.of(newGrade));
+                if (!report.isValid()) {
+                    showAlert(report.getErrors().get(0).getMessage());
+                    return;
+                }
+
+                gradeWrites.submit(newGrade).whenComplete((saved, ex) -> {
+                    if (ex != null) {
+                        Platform.runLater(() -> showAlert("Could not save grade: " + ex.getMessage()));
+                    }
+                });
 
                 // Clear form
                 studentSelect.setValue(null);
                 subjectField.clear();
                 gradeField.clear();
 
-                // Refresh dashboard
-                showDashboard("teacher");
-
             } catch (NumberFormatException ex) {
                 showAlert("Please enter a valid number for grade");
             }
@@ -645,9 +3360,7 @@ public class StudentGradeManagementSystem extends Application {
         TableView<Grade> gradesTable = createTeacherGradesTable();
 
         // Filter grades for this teacher
-        List<Grade> teacherGrades = grades.stream()
-                .filter(g -> g.getTeacherId().equals(currentUser.getUsername()))
-                .collect(Collectors.toList());
+        List<Grade> teacherGrades = gradeQuery.reset().teacher(currentUser.getUsername()).list();
 
         // Add data to table
         gradesTable.getItems().addAll(teacherGrades);
@@ -729,7 +3442,34 @@ public class StudentGradeManagementSystem extends Application {
         Label totalGrades = new Label("Total Grades: " + grades.size());
         totalGrades.setFont(Font.font("System", FontWeight.NORMAL, 14));
 
-        stats.getChildren().addAll(statsTitle, totalStudents, totalTeachers, totalGrades);
+        GradeStats allGrades = gradeQuery.reset().parallel(true).aggregate();
+        Label gradeRange = new Label(String.format("Average Grade: %.1f (min %.1f, max %.1f)",
+                allGrades.getAverage(), allGrades.getMin(), allGrades.getMax()));
+        gradeRange.setFont(Font.font("System", FontWeight.NORMAL, 14));
+
+        Label viewCacheStats = new Label("View Cache: " + studentViewCache.getHits() + " hits, "
+                + studentViewCache.getMisses() + " misses, " + studentViewCache.getEvictions() + " evictions");
+        viewCacheStats.setFont(Font.font("System", FontWeight.NORMAL, 14));
+
+        Button exportButton = new Button("Export Snapshot");
+        exportButton.setStyle("-fx-background-color: #1a73e8; -fx-text-fill: white; -fx-padding: 10 15; -fx-background-radius: 8;");
+        exportButton.setOnAction(e -> {
+            FileChooser chooser = new FileChooser();
+            chooser.setTitle("Export Snapshot");
+            chooser.setInitialFileName("grades.sgms");
+            File file = chooser.showSaveDialog(primaryStage);
+            if (file == null) {
+                return;
+            }
+            try {
+                exportSnapshot(file.toPath());
+                showAlert("Snapshot exported to " + file.getName());
+            } catch (IOException ex) {
+                showAlert("Could not export snapshot: " + ex.getMessage());
+            }
+        });
+
+        stats.getChildren().addAll(statsTitle, totalStudents, totalTeachers, totalGrades, gradeRange, viewCacheStats, exportButton);
 
         // Add components to dashboard
         content.getChildren().addAll(manageUsers, stats);
@@ -772,12 +3512,7 @@ public class StudentGradeManagementSystem extends Application {
 
         Optional<ButtonType> result = alert.showAndWait();
         if (result.isPresent() && result.get() == ButtonType.OK) {
-            if (userType.equals("student")) {
-                students.remove(user);
-            } else if (userType.equals("teacher")) {
-                teachers.remove(user);
-            }
-            showDashboard("admin"); // Refresh the dashboard
+            removeUser(user, userType);
         }
     }
 
@@ -834,6 +3569,19 @@ public class StudentGradeManagementSystem extends Application {
         alert.showAndWait();
     }
 
+    private static String ordinal(int number) {
+        int lastTwo = number % 100;
+        if (lastTwo >= 11 && lastTwo <= 13) {
+            return number + "th";
+        }
+        switch (number % 10) {
+            case 1: return number + "st";
+            case 2: return number + "nd";
+            case 3: return number + "rd";
+            default: return number + "th";
+        }
+    }
+
     private void logout() {
         currentUser = null;
         currentUserType = null;
@@ -877,7 +3625,15 @@ public class StudentGradeManagementSystem extends Application {
         return table;
     }
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
+        // --benchmark[=grades] compares the snapshot codec with Java serialization and JSON, without the UI
+        for (String arg : args) {
+            if (arg.startsWith("--benchmark")) {
+                int equals = arg.indexOf('=');
+                new CodecBenchmark(equals < 0 ? 1_000_000 : Long.parseLong(arg.substring(equals + 1))).run(System.out);
+                return;
+            }
+        }
         launch(args);
     }
 }